@@ -0,0 +1,84 @@
+package activity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import activity.FraudDetectionSystem.Transaction;
+
+// Log records replayed per second when the store is reopened
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ActivityStoreBenchmark {
+
+    static final int RECORDS = 1_000_000;
+    static final int FLIGHTS = 1_000;
+    static final int ACCOUNTS = 10_000;
+    static final int HOMES = 1_000;
+
+    LocationBlacklist blacklist;
+    Path directory;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        blacklist = new LocationBlacklist(Collections.singletonList("HighRiskCountry"));
+        directory = Files.createTempDirectory("activity-store");
+        LocalDateTime start = LocalDateTime.of(2024, 10, 1, 0, 0);
+
+        // A mix of the three systems' changes, mostly bookings and transactions
+        try (ActivityStore store = ActivityStore.open(directory, blacklist, 1024)) {
+            for (int flight = 0; flight < FLIGHTS; flight++) {
+                store.addFlight(flight, Integer.MAX_VALUE, 1);
+            }
+            for (int home = 0; home < HOMES; home++) {
+                store.registerDevice(home, "Lights", 2);
+                store.registerDevice(home, "Security", 1);
+            }
+            for (int i = FLIGHTS + 2 * HOMES; i < RECORDS; i++) {
+                if (i % 2 == 0) {
+                    store.reserve(i % FLIGHTS, 1 + i % 4);
+                } else {
+                    store.checkForFraud(i % ACCOUNTS, new Transaction(100 + i % 900, start.plusSeconds(i), i % 7 == 0 ? "France" : "Brazil"));
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(RECORDS)
+    public int replay() throws IOException {
+        try (ActivityStore store = ActivityStore.open(directory, blacklist, 1024)) {
+            return store.availableSeats(0);
+        }
+    }
+}
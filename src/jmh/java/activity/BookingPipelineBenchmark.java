@@ -0,0 +1,73 @@
+package activity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import activity.BookingPipeline.BookingRequest;
+import activity.FlightBookingSystem.BookingResult;
+
+// Bookings per second for a flash sale on a few flights, by batch size
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookingPipelineBenchmark {
+
+    static final int BOOKINGS = 10_000;
+    static final int FLIGHTS = 8;
+
+    @Param({"1", "16", "128"})
+    int maxBatchSize;
+
+    BookingPipeline pipeline;
+    BookingRequest[] requests;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FlightInventory inventory = new FlightInventory();
+        for (int flight = 0; flight < FLIGHTS; flight++) {
+            inventory.addFlight(flight, Integer.MAX_VALUE);
+        }
+        pipeline = new BookingPipeline(inventory, maxBatchSize, Duration.ofMillis(1));
+
+        LocalDateTime bookingTime = LocalDateTime.of(2024, 10, 1, 12, 0);
+        requests = new BookingRequest[BOOKINGS];
+        for (int i = 0; i < BOOKINGS; i++) {
+            requests[i] = new BookingRequest(i % FLIGHTS, 1, bookingTime, 1000.0, 120, false, bookingTime.plusDays(10), 0);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        pipeline.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BOOKINGS)
+    public BookingResult book() throws InterruptedException {
+        CompletableFuture<BookingResult> last = null;
+        for (BookingRequest request : requests) {
+            last = pipeline.submit(request);
+        }
+        return last.join();
+    }
+}
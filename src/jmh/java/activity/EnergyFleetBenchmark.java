@@ -0,0 +1,80 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import activity.EnergyFleet.FleetResult;
+import activity.EnergyFleet.Households;
+
+// Households per second as the number of cores grows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnergyFleetBenchmark {
+
+    static final int HOUSEHOLDS = 100_000;
+
+    @Param({"1", "2", "4", "8"})
+    int parallelism;
+
+    ForkJoinPool pool;
+    EnergyFleet fleet;
+    Households households;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new ForkJoinPool(parallelism);
+        fleet = new EnergyFleet(new SmartEnergyManagementSystem(), pool);
+
+        // A handful of device layouts shared by the households, as a fleet of similar homes would
+        DeviceRegistry[] layouts = new DeviceRegistry[8];
+        for (int i = 0; i < layouts.length; i++) {
+            layouts[i] = new DeviceRegistry();
+            layouts[i].register("Heating", 1);
+            layouts[i].register("Cooling", 1);
+            layouts[i].register("Security", 1);
+            layouts[i].register("Refrigerator", 1);
+            for (int device = 0; device < 8 + 4 * i; device++) {
+                layouts[i].register("Device" + device, 1 + device % 3);
+            }
+        }
+
+        LocalDateTime currentTime = LocalDateTime.of(2024, 10, 1, 18, 0);
+        double[] desiredTemperatureRange = {20.0, 24.0};
+        households = new Households(HOUSEHOLDS);
+        for (int i = 0; i < HOUSEHOLDS; i++) {
+            households.add(layouts[i % layouts.length], currentTime.plusHours(i % 24), 15.0 + i % 15,
+                    desiredTemperatureRange, 30.0, 20.0 + i % 20);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(HOUSEHOLDS)
+    public FleetResult manageEnergy() {
+        return fleet.manageEnergy(0.25, 0.20, households);
+    }
+}
@@ -0,0 +1,75 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import activity.FlightBookingSystem.BookingResult;
+import activity.FlightQuoteEngine.Flight;
+import activity.FlightQuoteEngine.Quote;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlightBookingBenchmark {
+
+    @Param({"1", "6"})
+    int passengers;
+
+    @Param({"12", "72"})
+    int hoursToDeparture;
+
+    FlightBookingSystem flightBookingSystem;
+    LocalDateTime bookingTime;
+    LocalDateTime departureTime;
+    FlightQuoteEngine quoteEngine;
+    Flight flight;
+    Quote quote;
+    long bookingMillis;
+
+    @Setup
+    public void setUp() {
+        flightBookingSystem = new FlightBookingSystem();
+        bookingTime = LocalDateTime.of(2024, 10, 1, 12, 0);
+        departureTime = bookingTime.plusHours(hoursToDeparture);
+        quoteEngine = new FlightQuoteEngine();
+        flight = quoteEngine.flight(1, 1000.0, 120, departureTime);
+        quote = new Quote();
+        bookingMillis = EpochTime.toEpochMillis(bookingTime);
+    }
+
+    @Benchmark
+    public BookingResult bookFlight() {
+        return flightBookingSystem.bookFlight(passengers, bookingTime, 100, 1000.0, 120, false, departureTime, 500);
+    }
+
+    @Benchmark
+    public BookingResult cancelFlight() {
+        return flightBookingSystem.bookFlight(passengers, bookingTime, 100, 1000.0, 120, true, departureTime, 500);
+    }
+
+    @Benchmark
+    public Quote quoteFlight() {
+        return quoteEngine.quote(1, passengers, bookingTime, 100, 1000.0, 120, false, departureTime, 500, quote);
+    }
+
+    // A held Flight skips the lookup and the LocalDateTime conversion
+    @Benchmark
+    public double quoteHeldFlight() {
+        return flight.totalPrice(passengers, bookingMillis, 500);
+    }
+}
@@ -0,0 +1,104 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+import activity.FraudDetectionSystem.TransactionBatch;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FraudDetectionBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    int historySize;
+
+    @Param({"10", "10000"})
+    int blacklistSize;
+
+    FraudDetectionSystem fraudDetectionSystem;
+    FraudRulePipeline pipeline;
+    List<Transaction> previousTransactions;
+    List<String> blacklistedLocations;
+    LocationBlacklist blacklist;
+    Transaction currentTransaction;
+    TransactionBatch batch;
+    int[] riskScores;
+    byte[] flags;
+
+    @Setup
+    public void setUp() {
+        fraudDetectionSystem = new FraudDetectionSystem();
+        pipeline = FraudRulePipeline.defaults(new FraudThresholds());
+
+        blacklistedLocations = new ArrayList<>();
+        for (int i = 0; i < blacklistSize; i++) {
+            blacklistedLocations.add("HighRiskCountry" + i);
+        }
+        blacklist = new LocationBlacklist(blacklistedLocations);
+
+        LocalDateTime start = LocalDateTime.of(2024, 10, 1, 0, 0);
+        previousTransactions = new ArrayList<>(historySize);
+        batch = new TransactionBatch(historySize);
+        for (int i = 0; i < historySize; i++) {
+            Transaction transaction = new Transaction(100 + i % 500, start.plusSeconds(i * 7L), i % 3 == 0 ? "France" : "Brazil");
+            previousTransactions.add(transaction);
+            batch.add(transaction, blacklist.dictionary());
+        }
+        currentTransaction = new Transaction(500, start.plusSeconds(historySize * 7L), "Brazil");
+        riskScores = new int[historySize];
+        flags = new byte[historySize];
+    }
+
+    @Benchmark
+    public FraudCheckResult checkForFraud() {
+        return fraudDetectionSystem.checkForFraud(currentTransaction, previousTransactions, blacklistedLocations);
+    }
+
+    @Benchmark
+    public FraudCheckResult checkForFraudWithBlacklistIndex() {
+        return fraudDetectionSystem.checkForFraud(currentTransaction, previousTransactions, blacklist);
+    }
+
+    @Benchmark
+    public FraudCheckResult rulePipeline() {
+        return pipeline.checkForFraud(currentTransaction, previousTransactions, blacklist);
+    }
+
+    // Scores the whole history, compare per transaction against checkForFraud with historySize 10
+    @Benchmark
+    public int[] batchOfHistorySize() {
+        fraudDetectionSystem.checkForFraud(batch, blacklist, riskScores, flags);
+        return riskScores;
+    }
+
+    // Streams the whole history through a fresh engine
+    @Benchmark
+    public FraudCheckResult engineOfHistorySize() {
+        FraudDetectionEngine engine = new FraudDetectionEngine(blacklist);
+        FraudCheckResult result = null;
+        for (Transaction transaction : previousTransactions) {
+            result = engine.checkForFraud(1, transaction);
+        }
+        return result;
+    }
+}
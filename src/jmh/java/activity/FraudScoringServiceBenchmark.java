@@ -0,0 +1,77 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+
+// Transactions per second as the number of cores grows
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FraudScoringServiceBenchmark {
+
+    static final int TRANSACTIONS = 10_000;
+
+    @Param({"1", "2", "4", "8"})
+    int parallelism;
+
+    @Param({"forkJoin", "virtualThreads"})
+    String executor;
+
+    FraudScoringService service;
+    Transaction[] transactions;
+    long nextAccount;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocationBlacklist blacklist = new LocationBlacklist(Collections.singletonList("HighRiskCountry"));
+        service = executor.equals("forkJoin")
+                ? FraudScoringService.forkJoin(parallelism, 4096, blacklist)
+                : FraudScoringService.virtualThreads(parallelism, 4096, blacklist);
+        LocalDateTime start = LocalDateTime.of(2024, 10, 1, 0, 0);
+        transactions = new Transaction[TRANSACTIONS];
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            transactions[i] = new Transaction(100 + i % 900, start.plusSeconds(i), i % 5 == 0 ? "France" : "Brazil");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        service.close();
+    }
+
+    // Each invocation uses fresh accounts so timestamps stay in order per account
+    @Benchmark
+    @OperationsPerInvocation(TRANSACTIONS)
+    public FraudCheckResult score() throws InterruptedException {
+        long firstAccount = nextAccount;
+        nextAccount += 1024;
+        CompletableFuture<FraudCheckResult> last = null;
+        for (int i = 0; i < TRANSACTIONS; i++) {
+            last = service.submit(firstAccount + i % 1024, transactions[i]);
+        }
+        return last.join();
+    }
+}
@@ -0,0 +1,92 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SmartEnergyManagementBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    int deviceCount;
+
+    // How far today's usage is above the limit, which drives the shutdown loops
+    @Param({"-1", "10", "10000"})
+    double energyOverLimit;
+
+    @Param({"0", "1000"})
+    int scheduleCount;
+
+    SmartEnergyManagementSystem energySystem;
+    Map<String, Integer> devicePriorities;
+    DeviceRegistry devices;
+    DeviceScheduler scheduler;
+    List<DeviceSchedule> scheduledDevices;
+    LocalDateTime currentTime;
+    double[] desiredTemperatureRange = {20.0, 24.0};
+    double energyUsageLimit = 30.0;
+
+    @Setup
+    public void setUp() {
+        energySystem = new SmartEnergyManagementSystem();
+        devicePriorities = new HashMap<>();
+        devicePriorities.put("Heating", 1);
+        devicePriorities.put("Cooling", 1);
+        devicePriorities.put("Security", 1);
+        devicePriorities.put("Refrigerator", 1);
+        for (int i = devicePriorities.size(); i < deviceCount; i++) {
+            devicePriorities.put("Device" + i, 1 + i % 3);
+        }
+
+        devices = DeviceRegistry.of(devicePriorities);
+
+        currentTime = LocalDateTime.of(2024, 10, 1, 18, 0);
+        scheduler = new DeviceScheduler(currentTime);
+        scheduledDevices = new ArrayList<>();
+        for (int i = 0; i < scheduleCount; i++) {
+            scheduledDevices.add(new DeviceSchedule("Device" + i, currentTime.plusMinutes(i % 120 - 60)));
+        }
+    }
+
+    @Benchmark
+    public EnergyManagementResult manageEnergyWithSavingMode() {
+        return energySystem.manageEnergy(0.25, 0.20, devicePriorities, currentTime, 18.0, desiredTemperatureRange,
+                energyUsageLimit, energyUsageLimit + energyOverLimit, scheduledDevices);
+    }
+
+    @Benchmark
+    public EnergyManagementResult manageEnergy() {
+        return energySystem.manageEnergy(0.10, 0.20, devicePriorities, currentTime, 22.0, desiredTemperatureRange,
+                energyUsageLimit, energyUsageLimit + energyOverLimit, scheduledDevices);
+    }
+
+    // Registered devices with no schedules falling due, so only manageEnergy itself is measured
+    @Benchmark
+    public EnergyManagementResult manageEnergyWithRegistry() {
+        return energySystem.manageEnergy(0.25, 0.20, devices, currentTime, 18.0, desiredTemperatureRange,
+                energyUsageLimit, energyUsageLimit + energyOverLimit, scheduler);
+    }
+}
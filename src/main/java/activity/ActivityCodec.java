@@ -0,0 +1,318 @@
+package activity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import activity.FlightBookingSystem.BookingResult;
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+// Fixed-layout binary encoding of the activity types. Every method takes an absolute offset
+// and leaves the buffer's position alone, so heap and direct buffers are read and written in
+// place. Locations and device names travel as dictionary ids; before sending records that use
+// new ids, the writer sends the entries added since its last exchange with writeDictionary and
+// the reader appends them with readDictionary, so both sides map ids to the same strings. The
+// views read single fields straight from a buffer and can be re-pointed at the next record.
+public class ActivityCodec {
+
+    // Transaction: epoch millis, amount, location id, sub-millisecond nanos
+    static final int TRANSACTION_BYTES = 24;
+    // FraudCheckResult: flags and risk score packed like FraudDetectionSystem.evaluate
+    static final int FRAUD_CHECK_RESULT_BYTES = 4;
+    // BookingResult: total price, refund amount, flags
+    static final int BOOKING_RESULT_BYTES = 17;
+    // EnergyManagementResult: flags, total energy used, device count, then per device its id and status
+    static final int ENERGY_RESULT_HEADER_BYTES = 13;
+    static final int DEVICE_STATUS_BYTES = 5;
+    // Dictionary entries: first id, entry count, then per entry its UTF-8 length and bytes
+    static final int DICTIONARY_HEADER_BYTES = 8;
+
+    static final byte CONFIRMATION = 1;
+    static final byte POINTS_USED = 2;
+    static final byte ENERGY_SAVING_MODE = 1;
+    static final byte TEMPERATURE_REGULATION_ACTIVE = 2;
+
+    private final StringDictionary locations;
+    private final StringDictionary devices;
+
+    public ActivityCodec(StringDictionary locations, StringDictionary devices) {
+        this.locations = locations;
+        this.devices = devices;
+    }
+
+    // Each write returns the number of bytes written
+
+    public int writeTransaction(ByteBuffer buffer, int offset, Transaction transaction) {
+        buffer.putLong(offset, transaction.epochMillis);
+        buffer.putDouble(offset + 8, transaction.amount);
+        buffer.putInt(offset + 16, locations.idOf(transaction.location));
+        buffer.putInt(offset + 20, transaction.subMillisNanos);
+        return TRANSACTION_BYTES;
+    }
+
+    public Transaction readTransaction(ByteBuffer buffer, int offset) {
+        return new Transaction(buffer.getDouble(offset + 8), buffer.getLong(offset), buffer.getInt(offset + 20),
+                locations.nameOf(buffer.getInt(offset + 16)));
+    }
+
+    public int writeFraudCheckResult(ByteBuffer buffer, int offset, FraudCheckResult result) {
+        if (result.riskScore < 0 || result.riskScore > FraudCheckResult.RISK_SCORE_MASK) {
+            throw new IllegalArgumentException("Risk score " + result.riskScore + " does not fit in "
+                    + FraudCheckResult.FLAGS_SHIFT + " bits");
+        }
+        int flags = (result.isFraudulent ? FraudCheckResult.FRAUDULENT : 0)
+                | (result.isBlocked ? FraudCheckResult.BLOCKED : 0)
+                | (result.verificationRequired ? FraudCheckResult.VERIFICATION_REQUIRED : 0);
+        buffer.putInt(offset, flags << FraudCheckResult.FLAGS_SHIFT | result.riskScore);
+        return FRAUD_CHECK_RESULT_BYTES;
+    }
+
+    public FraudCheckResult readFraudCheckResult(ByteBuffer buffer, int offset) {
+        return FraudCheckResult.unpack(buffer.getInt(offset));
+    }
+
+    public int writeBookingResult(ByteBuffer buffer, int offset, BookingResult result) {
+        buffer.putDouble(offset, result.totalPrice);
+        buffer.putDouble(offset + 8, result.refundAmount);
+        buffer.put(offset + 16, (byte) ((result.confirmation ? CONFIRMATION : 0) | (result.pointsUsed ? POINTS_USED : 0)));
+        return BOOKING_RESULT_BYTES;
+    }
+
+    public BookingResult readBookingResult(ByteBuffer buffer, int offset) {
+        byte flags = buffer.get(offset + 16);
+        return new BookingResult((flags & CONFIRMATION) != 0, buffer.getDouble(offset), buffer.getDouble(offset + 8),
+                (flags & POINTS_USED) != 0);
+    }
+
+    public static int energyResultBytes(EnergyManagementResult result) {
+        return ENERGY_RESULT_HEADER_BYTES + result.deviceStatus.size() * DEVICE_STATUS_BYTES;
+    }
+
+    public int writeEnergyResult(ByteBuffer buffer, int offset, EnergyManagementResult result) {
+        buffer.put(offset, (byte) ((result.energySavingMode ? ENERGY_SAVING_MODE : 0)
+                | (result.temperatureRegulationActive ? TEMPERATURE_REGULATION_ACTIVE : 0)));
+        buffer.putDouble(offset + 1, result.totalEnergyUsed);
+        int position = offset + ENERGY_RESULT_HEADER_BYTES;
+        for (Map.Entry<String, Boolean> device : result.deviceStatus.entrySet()) {
+            buffer.putInt(position, devices.idOf(device.getKey()));
+            buffer.put(position + 4, (byte) (device.getValue() ? 1 : 0));
+            position += DEVICE_STATUS_BYTES;
+        }
+        buffer.putInt(offset + 9, (position - offset - ENERGY_RESULT_HEADER_BYTES) / DEVICE_STATUS_BYTES);
+        return position - offset;
+    }
+
+    public EnergyManagementResult readEnergyResult(ByteBuffer buffer, int offset) {
+        EnergyResultView view = new EnergyResultView(devices).wrap(buffer, offset);
+        Map<String, Boolean> deviceStatus = new HashMap<>();
+        for (int i = 0; i < view.deviceCount(); i++) {
+            deviceStatus.put(view.deviceName(i), view.isOn(i));
+        }
+        return new EnergyManagementResult(deviceStatus, view.energySavingMode(), view.temperatureRegulationActive(),
+                view.totalEnergyUsed());
+    }
+
+    public static int dictionaryBytes(StringDictionary dictionary, int fromId) {
+        int bytes = DICTIONARY_HEADER_BYTES;
+        for (int id = fromId; id < dictionary.size(); id++) {
+            bytes += Integer.BYTES + dictionary.nameOf(id).getBytes(StandardCharsets.UTF_8).length;
+        }
+        return bytes;
+    }
+
+    // Writes the entries from fromId on; a sender passes the size it had at its last exchange
+    public static int writeDictionary(ByteBuffer buffer, int offset, StringDictionary dictionary, int fromId) {
+        int count = dictionary.size() - fromId;
+        buffer.putInt(offset, fromId);
+        buffer.putInt(offset + 4, count);
+        int position = offset + DICTIONARY_HEADER_BYTES;
+        for (int id = fromId; id < fromId + count; id++) {
+            byte[] name = dictionary.nameOf(id).getBytes(StandardCharsets.UTF_8);
+            buffer.putInt(position, name.length);
+            buffer.put(position + 4, name);
+            position += Integer.BYTES + name.length;
+        }
+        return position - offset;
+    }
+
+    // Appends the entries to the dictionary and returns the number of bytes read. Entries the
+    // dictionary already holds must match; anything else means the two sides have diverged.
+    public static int readDictionary(ByteBuffer buffer, int offset, StringDictionary dictionary) {
+        int fromId = buffer.getInt(offset);
+        int count = buffer.getInt(offset + 4);
+        if (fromId > dictionary.size()) {
+            throw new IllegalStateException("Dictionary entries start at id " + fromId + " but only "
+                    + dictionary.size() + " are known");
+        }
+        int position = offset + DICTIONARY_HEADER_BYTES;
+        for (int id = fromId; id < fromId + count; id++) {
+            byte[] name = new byte[buffer.getInt(position)];
+            buffer.get(position + 4, name);
+            position += Integer.BYTES + name.length;
+            String value = new String(name, StandardCharsets.UTF_8);
+            int known = dictionary.lookup(value);
+            if (known == -1 && dictionary.size() == id) {
+                known = dictionary.idOf(value);
+            }
+            if (known != id) {
+                throw new IllegalStateException("Dictionary entry " + id + " (" + value + ") does not match the local dictionary");
+            }
+        }
+        return position - offset;
+    }
+
+    public TransactionView transactionView() {
+        return new TransactionView(locations);
+    }
+
+    public EnergyResultView energyResultView() {
+        return new EnergyResultView(devices);
+    }
+
+    public static class TransactionView {
+        private final StringDictionary locations;
+        private ByteBuffer buffer;
+        private int offset;
+
+        TransactionView(StringDictionary locations) {
+            this.locations = locations;
+        }
+
+        public TransactionView wrap(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+            return this;
+        }
+
+        public long epochMillis() {
+            return buffer.getLong(offset);
+        }
+
+        public double amount() {
+            return buffer.getDouble(offset + 8);
+        }
+
+        public int locationId() {
+            return buffer.getInt(offset + 16);
+        }
+
+        public int subMillisNanos() {
+            return buffer.getInt(offset + 20);
+        }
+
+        // The dictionary's own string, so nothing is decoded
+        public String location() {
+            return locations.nameOf(locationId());
+        }
+    }
+
+    public static class FraudCheckResultView {
+        private ByteBuffer buffer;
+        private int offset;
+
+        public FraudCheckResultView wrap(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+            return this;
+        }
+
+        public boolean isFraudulent() {
+            return (flags() & FraudCheckResult.FRAUDULENT) != 0;
+        }
+
+        public boolean isBlocked() {
+            return (flags() & FraudCheckResult.BLOCKED) != 0;
+        }
+
+        public boolean verificationRequired() {
+            return (flags() & FraudCheckResult.VERIFICATION_REQUIRED) != 0;
+        }
+
+        public int riskScore() {
+            return buffer.getInt(offset) & FraudCheckResult.RISK_SCORE_MASK;
+        }
+
+        private int flags() {
+            return buffer.getInt(offset) >>> FraudCheckResult.FLAGS_SHIFT;
+        }
+    }
+
+    public static class BookingResultView {
+        private ByteBuffer buffer;
+        private int offset;
+
+        public BookingResultView wrap(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+            return this;
+        }
+
+        public double totalPrice() {
+            return buffer.getDouble(offset);
+        }
+
+        public double refundAmount() {
+            return buffer.getDouble(offset + 8);
+        }
+
+        public boolean confirmation() {
+            return (buffer.get(offset + 16) & CONFIRMATION) != 0;
+        }
+
+        public boolean pointsUsed() {
+            return (buffer.get(offset + 16) & POINTS_USED) != 0;
+        }
+    }
+
+    public static class EnergyResultView {
+        private final StringDictionary devices;
+        private ByteBuffer buffer;
+        private int offset;
+
+        EnergyResultView(StringDictionary devices) {
+            this.devices = devices;
+        }
+
+        public EnergyResultView wrap(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+            return this;
+        }
+
+        public boolean energySavingMode() {
+            return (buffer.get(offset) & ENERGY_SAVING_MODE) != 0;
+        }
+
+        public boolean temperatureRegulationActive() {
+            return (buffer.get(offset) & TEMPERATURE_REGULATION_ACTIVE) != 0;
+        }
+
+        public double totalEnergyUsed() {
+            return buffer.getDouble(offset + 1);
+        }
+
+        public int deviceCount() {
+            return buffer.getInt(offset + 9);
+        }
+
+        public int deviceId(int index) {
+            return buffer.getInt(offset + ENERGY_RESULT_HEADER_BYTES + index * DEVICE_STATUS_BYTES);
+        }
+
+        public String deviceName(int index) {
+            return devices.nameOf(deviceId(index));
+        }
+
+        public boolean isOn(int index) {
+            return buffer.get(offset + ENERGY_RESULT_HEADER_BYTES + index * DEVICE_STATUS_BYTES + 4) != 0;
+        }
+
+        // Bytes of the encoded result, to step to the next one
+        public int length() {
+            return ENERGY_RESULT_HEADER_BYTES + deviceCount() * DEVICE_STATUS_BYTES;
+        }
+    }
+}
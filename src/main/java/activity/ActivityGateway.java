@@ -0,0 +1,188 @@
+package activity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import activity.BookingPipeline.BookingRequest;
+import activity.EnergyFleet.FleetResult;
+import activity.EnergyFleet.Households;
+import activity.FlightBookingSystem.BookingResult;
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+// Non-blocking entry point to the three systems. No call waits: every request is either
+// admitted to a bounded queue and answered through its future, or its future fails at once
+// with a RejectedExecutionException, so a burst is shed at the door instead of piling up
+// behind the requests already queued. Callers should back off and retry on rejection. Once
+// the gateway is closed, requests are rejected the same way.
+public class ActivityGateway implements AutoCloseable {
+
+    // Queued batches of energy requests, before requests are rejected
+    static final int QUEUED_BATCHES = 16;
+
+    public static class EnergyRequest {
+        final DeviceRegistry devices;
+        final double currentPrice;
+        final double priceThreshold;
+        final LocalDateTime currentTime;
+        final double currentTemperature;
+        final double[] desiredTemperatureRange;
+        final double energyUsageLimit;
+        final double totalEnergyUsedToday;
+        final List<DeviceSchedule> scheduledDevices;
+
+        public EnergyRequest(DeviceRegistry devices, double currentPrice, double priceThreshold, LocalDateTime currentTime,
+                             double currentTemperature, double[] desiredTemperatureRange, double energyUsageLimit,
+                             double totalEnergyUsedToday) {
+            this(devices, currentPrice, priceThreshold, currentTime, currentTemperature, desiredTemperatureRange,
+                    energyUsageLimit, totalEnergyUsedToday, List.of());
+        }
+
+        // Devices of due schedules are registered in devices when the request's batch runs
+        public EnergyRequest(DeviceRegistry devices, double currentPrice, double priceThreshold, LocalDateTime currentTime,
+                             double currentTemperature, double[] desiredTemperatureRange, double energyUsageLimit,
+                             double totalEnergyUsedToday, List<DeviceSchedule> scheduledDevices) {
+            this.devices = devices;
+            this.currentPrice = currentPrice;
+            this.priceThreshold = priceThreshold;
+            this.currentTime = currentTime;
+            this.currentTemperature = currentTemperature;
+            this.desiredTemperatureRange = desiredTemperatureRange;
+            this.energyUsageLimit = energyUsageLimit;
+            this.totalEnergyUsedToday = totalEnergyUsedToday;
+            this.scheduledDevices = scheduledDevices;
+        }
+    }
+
+    static class PendingEnergy {
+        final EnergyRequest request;
+        final CompletableFuture<EnergyManagementResult> result = new CompletableFuture<>();
+
+        PendingEnergy(EnergyRequest request) {
+            this.request = request;
+        }
+    }
+
+    private final FraudScoringService fraud;
+    private final BookingPipeline bookings;
+    private final EnergyFleet fleet;
+    private final MicroBatcher<PendingEnergy> energy;
+
+    public ActivityGateway(FraudScoringService fraud, BookingPipeline bookings, EnergyFleet fleet, int maxBatchSize, Duration maxDelay) {
+        this.fraud = fraud;
+        this.bookings = bookings;
+        this.fleet = fleet;
+        this.energy = new MicroBatcher<>("activity-gateway-energy", maxBatchSize, maxDelay, maxBatchSize * QUEUED_BATCHES,
+                this::manageEnergy);
+    }
+
+    public CompletableFuture<FraudCheckResult> checkForFraud(long accountId, Transaction transaction) {
+        try {
+            CompletableFuture<FraudCheckResult> result = fraud.trySubmit(accountId, transaction);
+            return result != null ? result : rejected("fraud checks");
+        } catch (IllegalStateException e) {
+            return closed("fraud checks");
+        }
+    }
+
+    public CompletableFuture<BookingResult> bookFlight(BookingRequest request) {
+        try {
+            CompletableFuture<BookingResult> result = bookings.trySubmit(request);
+            return result != null ? result : rejected("bookings");
+        } catch (IllegalStateException e) {
+            return closed("bookings");
+        }
+    }
+
+    public CompletableFuture<EnergyManagementResult> manageEnergy(EnergyRequest request) {
+        PendingEnergy pending = new PendingEnergy(request);
+        try {
+            return energy.offer(pending) ? pending.result : rejected("energy requests");
+        } catch (IllegalStateException e) {
+            return closed("energy requests");
+        }
+    }
+
+    private static <T> CompletableFuture<T> rejected(String queue) {
+        return CompletableFuture.failedFuture(new RejectedExecutionException("Too many pending " + queue));
+    }
+
+    private static <T> CompletableFuture<T> closed(String queue) {
+        return CompletableFuture.failedFuture(new RejectedExecutionException("Gateway is closed to " + queue));
+    }
+
+    // Households of a batch only share a fleet run with those that take the same price decision
+    void manageEnergy(List<PendingEnergy> batch) {
+        List<PendingEnergy> saving = new ArrayList<>();
+        List<PendingEnergy> normal = new ArrayList<>();
+        for (PendingEnergy pending : batch) {
+            (pending.request.currentPrice > pending.request.priceThreshold ? saving : normal).add(pending);
+        }
+        manageEnergyOfGroup(saving);
+        manageEnergyOfGroup(normal);
+    }
+
+    private void manageEnergyOfGroup(List<PendingEnergy> group) {
+        if (group.isEmpty()) {
+            return;
+        }
+        try {
+            Households households = new Households(group.size());
+            for (PendingEnergy pending : group) {
+                EnergyRequest request = pending.request;
+                households.add(request.devices, request.currentTime, request.currentTemperature, request.desiredTemperatureRange,
+                        request.energyUsageLimit, request.totalEnergyUsedToday, request.scheduledDevices);
+            }
+
+            EnergyRequest first = group.get(0).request;
+            FleetResult result = fleet.manageEnergy(first.currentPrice, first.priceThreshold, households);
+            for (int i = 0; i < group.size(); i++) {
+                group.get(i).result.complete(new EnergyManagementResult(result.deviceStatus(i), result.energySavingMode(),
+                        result.temperatureRegulationActive(i), result.totalEnergyUsed(i)));
+            }
+        } catch (RuntimeException e) {
+            for (PendingEnergy pending : group) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Answers everything admitted so far before closing the systems behind the gateway. Every
+    // system is closed even if closing another fails; the first failure is thrown with the
+    // others suppressed, and an interrupt is passed on once all of them are closed.
+    @Override
+    public void close() throws InterruptedException {
+        Exception failure = null;
+        boolean interrupted = false;
+        for (AutoCloseable system : new AutoCloseable[]{energy, bookings, fraud}) {
+            try {
+                system.close();
+            } catch (Exception e) {
+                interrupted |= e instanceof InterruptedException;
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure instanceof InterruptedException) {
+            throw (InterruptedException) failure;
+        }
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure != null) {
+            throw new IllegalStateException("Cannot close the gateway", failure);
+        }
+    }
+}
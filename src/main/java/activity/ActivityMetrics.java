@@ -0,0 +1,33 @@
+package activity;
+
+// Hooks the activity systems call on their hot paths. NOOP does nothing and, as
+// long as no recording implementation is in use, the JIT inlines the calls away.
+public interface ActivityMetrics {
+
+    enum Operation { CHECK_FOR_FRAUD, BOOK_FLIGHT, MANAGE_ENERGY }
+
+    enum Rule { AMOUNT, VELOCITY, LOCATION_CHANGE, BLACKLIST }
+
+    enum BookingDecision { REJECTED_NO_SEATS, CONFIRMED, CANCELLED }
+
+    ActivityMetrics NOOP = new ActivityMetrics() {
+    };
+
+    // Returns 0 when latencies are not recorded, so the clock is never read
+    default long startTimer() {
+        return 0;
+    }
+
+    default void recordLatency(Operation operation, long startNanos) {
+    }
+
+    // One bit per Rule ordinal
+    default void fraudRuleHits(int ruleHits) {
+    }
+
+    default void bookingDecision(BookingDecision decision) {
+    }
+
+    default void energyShutdownIterations(int iterations) {
+    }
+}
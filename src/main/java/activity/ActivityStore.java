@@ -0,0 +1,340 @@
+package activity;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import activity.FraudDetectionEngine.AccountWindow;
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+import activity.RewardPointsLedger.Reservation;
+
+// Durable state of the three systems: seat inventories, per-account fraud histories,
+// per-home device priorities and reward point balances. Every change is applied and then appended to a write-ahead
+// log, and open() rebuilds the state from the latest snapshot plus the log written since.
+//
+// A snapshot is written in the log's own record format, to a temporary file that is moved
+// into place, and once the directory is forced so the move is durable, the log restarts
+// with the next generation. A log whose generation
+// does not match the snapshot's predates it and is discarded. Unlike the log, a snapshot
+// is never torn by a crash, so a corrupt snapshot fails open instead of loading in part.
+public class ActivityStore implements Closeable {
+
+    static final String LOG_FILE = "activity.wal";
+    static final String SNAPSHOT_FILE = "activity.snapshot";
+
+    static final byte FLIGHT_ADDED = 1;
+    static final byte SEATS_RESERVED = 2;
+    static final byte SEATS_RELEASED = 3;
+    static final byte TRANSACTION = 4;
+    static final byte DEVICE_REGISTERED = 5;
+    static final byte POINTS_CREDITED = 6;
+    static final byte POINTS_SPENT = 7;
+
+    // Forces the entries of a directory to disk
+    interface DirectorySync {
+        void force(Path directory) throws IOException;
+    }
+
+    private final Path directory;
+    private final DirectorySync directorySync;
+    private final FlightInventory inventory = new FlightInventory();
+    private final FraudDetectionEngine fraudEngine;
+    private final Map<Long, DeviceRegistry> homes = new ConcurrentHashMap<>();
+    private final RewardPointsLedger ledger = new RewardPointsLedger();
+    // Changes hold the read lock from applying to logging, so a snapshot never sees one half done
+    private final ReadWriteLock snapshotLock = new ReentrantReadWriteLock();
+    private WriteAheadLog log;
+
+    private ActivityStore(Path directory, LocationBlacklist blacklist, DirectorySync directorySync) {
+        this.directory = directory;
+        this.directorySync = directorySync;
+        this.fraudEngine = new FraudDetectionEngine(blacklist);
+    }
+
+    // Appends are fsynced in groups of groupCommitSize records; sync() forces the rest
+    public static ActivityStore open(Path directory, LocationBlacklist blacklist, int groupCommitSize) throws IOException {
+        return open(directory, blacklist, groupCommitSize, ActivityStore::forceDirectory);
+    }
+
+    static ActivityStore open(Path directory, LocationBlacklist blacklist, int groupCommitSize,
+                              DirectorySync directorySync) throws IOException {
+        Files.createDirectories(directory);
+        ActivityStore store = new ActivityStore(directory, blacklist, directorySync);
+
+        long generation = 0;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            generation = WriteAheadLog.readComplete(snapshot, store::apply);
+        }
+
+        Path logFile = directory.resolve(LOG_FILE);
+        if (Files.exists(logFile) && generationOf(logFile) != generation) {
+            Files.delete(logFile);
+        }
+        store.log = WriteAheadLog.open(logFile, generation, groupCommitSize, store::apply);
+        return store;
+    }
+
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    static long generationOf(Path logFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(WriteAheadLog.HEADER_BYTES);
+            channel.read(header, 0);
+            // A log too short to have a header holds no records of any generation
+            return header.position() < WriteAheadLog.HEADER_BYTES ? -1 : header.getLong(8);
+        }
+    }
+
+    public void addFlight(long flightId, int seats, int stripes) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            inventory.addFlight(flightId, seats, stripes);
+            log.append(FLIGHT_ADDED, ByteBuffer.allocate(16).putLong(flightId).putInt(seats).putInt(stripes).flip());
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    public boolean reserve(long flightId, int passengers) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            if (!inventory.reserve(flightId, passengers)) {
+                return false;
+            }
+            log.append(SEATS_RESERVED, ByteBuffer.allocate(12).putLong(flightId).putInt(passengers).flip());
+            return true;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    public void release(long flightId, int passengers) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            inventory.release(flightId, passengers);
+            log.append(SEATS_RELEASED, ByteBuffer.allocate(12).putLong(flightId).putInt(passengers).flip());
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    public int availableSeats(long flightId) {
+        return inventory.availableSeats(flightId);
+    }
+
+    public FraudCheckResult checkForFraud(long accountId, Transaction transaction) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            synchronized (fraudEngine) {
+                FraudCheckResult result = fraudEngine.checkForFraud(accountId, transaction);
+                log.append(TRANSACTION, encode(accountId, transaction));
+                return result;
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    public int recentTransactionCount(long accountId) {
+        synchronized (fraudEngine) {
+            return fraudEngine.recentTransactionCount(accountId);
+        }
+    }
+
+    public int registerDevice(long homeId, String device, int priority) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            DeviceRegistry devices = homes.computeIfAbsent(homeId, id -> new DeviceRegistry());
+            synchronized (devices) {
+                int id = devices.register(device, priority);
+                log.append(DEVICE_REGISTERED, encode(homeId, device, priority));
+                return id;
+            }
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // Registry of the home's devices for manageEnergy; null for a home without devices.
+    // Devices must be registered through the store to survive a restart.
+    public DeviceRegistry devices(long homeId) {
+        return homes.get(homeId);
+    }
+
+    public void creditPoints(long customerId, long points) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            ledger.credit(customerId, points);
+            log.append(POINTS_CREDITED, ByteBuffer.allocate(16).putLong(customerId).putLong(points).flip());
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    // Reservations are not logged: one still pending at a crash is released by the restart.
+    // They still hold the read lock, so a snapshot never sees points in flight between the
+    // balance and the reserved counter.
+    public Reservation reservePoints(long customerId, int points) {
+        snapshotLock.readLock().lock();
+        try {
+            return ledger.reserve(customerId, points);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    public boolean commitPoints(Reservation reservation) throws IOException {
+        snapshotLock.readLock().lock();
+        try {
+            if (!ledger.commit(reservation)) {
+                return false;
+            }
+            log.append(POINTS_SPENT, ByteBuffer.allocate(16).putLong(reservation.customerId).putLong(reservation.points).flip());
+            return true;
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    public boolean releasePoints(Reservation reservation) {
+        snapshotLock.readLock().lock();
+        try {
+            return ledger.release(reservation);
+        } finally {
+            snapshotLock.readLock().unlock();
+        }
+    }
+
+    public long availablePoints(long customerId) {
+        return ledger.availablePoints(customerId);
+    }
+
+    public void sync() throws IOException {
+        log.sync();
+    }
+
+    // Writes the whole state to a new snapshot and empties the log
+    public void snapshot() throws IOException {
+        snapshotLock.writeLock().lock();
+        try {
+            long generation = log.generation() + 1;
+            Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+            Files.deleteIfExists(temporary);
+            try (WriteAheadLog snapshot = WriteAheadLog.open(temporary, generation, Integer.MAX_VALUE, (type, payload) -> {
+            })) {
+                writeState(snapshot);
+            }
+            Files.move(temporary, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+            // Until the move is durable a crash can bring back the old snapshot, which
+            // needs the current log
+            directorySync.force(directory);
+            log.reset(generation);
+        } finally {
+            snapshotLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    private void writeState(WriteAheadLog snapshot) throws IOException {
+        for (Map.Entry<Long, FlightInventory.Seats> flight : inventory.flights.entrySet()) {
+            FlightInventory.Seats seats = flight.getValue();
+            // Capacity and seats taken, so releases after a restart are still capped at capacity
+            snapshot.append(FLIGHT_ADDED, ByteBuffer.allocate(16).putLong(flight.getKey()).putInt(seats.capacity)
+                    .putInt(seats.stripeCount).flip());
+            int taken = seats.capacity - seats.available();
+            if (taken > 0) {
+                snapshot.append(SEATS_RESERVED, ByteBuffer.allocate(12).putLong(flight.getKey()).putInt(taken).flip());
+            }
+        }
+        synchronized (fraudEngine) {
+            for (Map.Entry<Long, AccountWindow> window : fraudEngine.windows.entrySet()) {
+                for (Transaction transaction : window.getValue().recent) {
+                    snapshot.append(TRANSACTION, encode(window.getKey(), transaction));
+                }
+            }
+        }
+        for (Map.Entry<Long, DeviceRegistry> home : homes.entrySet()) {
+            DeviceRegistry devices = home.getValue();
+            for (int id = 0; id < devices.size(); id++) {
+                if (devices.hasPriority(id)) {
+                    snapshot.append(DEVICE_REGISTERED, encode(home.getKey(), devices.nameOf(id), devices.priority(id)));
+                }
+            }
+        }
+        for (Map.Entry<Long, RewardPointsLedger.Account> account : ledger.accounts.entrySet()) {
+            // Reserved points are not spent until their reservation commits
+            long points = account.getValue().available.get() + account.getValue().reserved.get();
+            snapshot.append(POINTS_CREDITED, ByteBuffer.allocate(16).putLong(account.getKey()).putLong(points).flip());
+        }
+    }
+
+    // Replays one record. Seat changes are applied unchecked: records of concurrent
+    // changes may be logged in another order than they were applied.
+    private void apply(byte type, ByteBuffer payload) throws IOException {
+        switch (type) {
+            case FLIGHT_ADDED:
+                inventory.addFlight(payload.getLong(), payload.getInt(), payload.getInt());
+                break;
+            case SEATS_RESERVED:
+                inventory.flights.get(payload.getLong()).adjust(-payload.getInt());
+                break;
+            case SEATS_RELEASED:
+                inventory.flights.get(payload.getLong()).adjust(payload.getInt());
+                break;
+            case TRANSACTION:
+                long accountId = payload.getLong();
+                long epochMillis = payload.getLong();
+                int subMillisNanos = payload.getInt();
+                double amount = payload.getDouble();
+                fraudEngine.checkForFraud(accountId, new Transaction(amount, epochMillis, subMillisNanos,
+                        StandardCharsets.UTF_8.decode(payload).toString()));
+                break;
+            case DEVICE_REGISTERED:
+                long homeId = payload.getLong();
+                int priority = payload.getInt();
+                homes.computeIfAbsent(homeId, id -> new DeviceRegistry())
+                        .register(StandardCharsets.UTF_8.decode(payload).toString(), priority);
+                break;
+            case POINTS_CREDITED:
+                ledger.credit(payload.getLong(), payload.getLong());
+                break;
+            case POINTS_SPENT:
+                ledger.accounts.get(payload.getLong()).available.addAndGet(-payload.getLong());
+                break;
+            default:
+                throw new IOException("Unknown record type " + type + " in " + directory);
+        }
+    }
+
+    private static ByteBuffer encode(long accountId, Transaction transaction) {
+        byte[] location = transaction.location.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(28 + location.length).putLong(accountId).putLong(transaction.epochMillis)
+                .putInt(transaction.subMillisNanos).putDouble(transaction.amount).put(location).flip();
+    }
+
+    private static ByteBuffer encode(long homeId, String device, int priority) {
+        byte[] name = device.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(12 + name.length).putLong(homeId).putInt(priority).put(name).flip();
+    }
+}
@@ -0,0 +1,174 @@
+package activity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import activity.FlightBookingSystem.BookingResult;
+import activity.FlightQuoteEngine.Quote;
+
+// Books flights in micro-batches. Each batch is split by flight, and every flight's group
+// reserves the seats of all its bookings in one inventory operation and is priced from one
+// precomputed Flight. Only when the group as a whole does not fit are its bookings reserved
+// one by one in arrival order, so the flight fills up exactly as with single bookings.
+// Bookings that end up unconfirmed, or whose request fails, give their seats back.
+public class BookingPipeline implements AutoCloseable {
+
+    // Queued batches per batcher, before submit blocks
+    static final int QUEUED_BATCHES = 16;
+
+    public static class BookingRequest {
+        final long flightId;
+        final int passengers;
+        final LocalDateTime bookingTime;
+        final double currentPrice;
+        final int previousSales;
+        final boolean isCancellation;
+        final LocalDateTime departureTime;
+        final int rewardPointsAvailable;
+
+        public BookingRequest(long flightId, int passengers, LocalDateTime bookingTime, double currentPrice, int previousSales,
+                              boolean isCancellation, LocalDateTime departureTime, int rewardPointsAvailable) {
+            this.flightId = flightId;
+            this.passengers = passengers;
+            this.bookingTime = bookingTime;
+            this.currentPrice = currentPrice;
+            this.previousSales = previousSales;
+            this.isCancellation = isCancellation;
+            this.departureTime = departureTime;
+            this.rewardPointsAvailable = rewardPointsAvailable;
+        }
+    }
+
+    static class PendingBooking {
+        final BookingRequest request;
+        final long startNanos;
+        final CompletableFuture<BookingResult> result = new CompletableFuture<>();
+
+        PendingBooking(BookingRequest request, long startNanos) {
+            this.request = request;
+            this.startNanos = startNanos;
+        }
+    }
+
+    private final FlightInventory inventory;
+    private final FlightQuoteEngine quotes = new FlightQuoteEngine();
+    private final ActivityMetrics metrics;
+    private final MicroBatcher<PendingBooking> batcher;
+    // Only used by the batcher's worker thread
+    private final Quote quote = new Quote();
+
+    public BookingPipeline(FlightInventory inventory, int maxBatchSize, Duration maxDelay) {
+        this(inventory, maxBatchSize, maxDelay, ActivityMetrics.NOOP);
+    }
+
+    public BookingPipeline(FlightInventory inventory, int maxBatchSize, Duration maxDelay, ActivityMetrics metrics) {
+        this.inventory = inventory;
+        this.metrics = metrics;
+        this.batcher = new MicroBatcher<>("booking-pipeline", maxBatchSize, maxDelay, maxBatchSize * QUEUED_BATCHES, this::process);
+    }
+
+    // Blocks while the pipeline is full. Latency metrics include the time spent queued.
+    public CompletableFuture<BookingResult> submit(BookingRequest request) throws InterruptedException {
+        PendingBooking pending = new PendingBooking(request, metrics.startTimer());
+        batcher.submit(pending);
+        return pending.result;
+    }
+
+    // Same as submit, but returns null instead of waiting for room in the pipeline
+    public CompletableFuture<BookingResult> trySubmit(BookingRequest request) {
+        PendingBooking pending = new PendingBooking(request, metrics.startTimer());
+        if (!batcher.offer(pending)) {
+            return null;
+        }
+        return pending.result;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        batcher.close();
+    }
+
+    void process(List<PendingBooking> batch) {
+        Map<Long, List<PendingBooking>> flights = new LinkedHashMap<>();
+        for (PendingBooking pending : batch) {
+            flights.computeIfAbsent(pending.request.flightId, id -> new ArrayList<>()).add(pending);
+        }
+
+        for (Map.Entry<Long, List<PendingBooking>> flight : flights.entrySet()) {
+            try {
+                commit(flight.getKey(), flight.getValue());
+            } catch (RuntimeException e) {
+                for (PendingBooking pending : flight.getValue()) {
+                    pending.result.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    // A failing request only fails its own future and gives back the seats it held
+    private void commit(long flightId, List<PendingBooking> group) {
+        int passengers = 0;
+        for (PendingBooking pending : group) {
+            if (!pending.request.isCancellation && pending.request.passengers > 0) {
+                passengers += pending.request.passengers;
+            }
+        }
+        // Seats reserved for the group that no booking has taken yet
+        int groupSeats = passengers > 0 && inventory.reserve(flightId, passengers) ? passengers : 0;
+
+        for (PendingBooking pending : group) {
+            BookingRequest request = pending.request;
+            int heldSeats = 0;
+            try {
+                if (request.isCancellation) {
+                    quote(flightId, request);
+                    inventory.release(flightId, request.passengers);
+                } else {
+                    if (groupSeats > 0 && request.passengers > 0) {
+                        groupSeats -= request.passengers;
+                        heldSeats = request.passengers;
+                    } else if (inventory.reserve(flightId, request.passengers)) {
+                        heldSeats = request.passengers;
+                    }
+
+                    if (heldSeats > 0) {
+                        quote(flightId, request);
+                    } else {
+                        // Same result bookFlight gives when there are fewer seats than passengers
+                        quote.set(false, 0, 0, false);
+                    }
+                    if (!quote.confirmation && heldSeats > 0) {
+                        inventory.release(flightId, heldSeats);
+                    }
+                    heldSeats = 0;
+                }
+            } catch (RuntimeException e) {
+                if (heldSeats > 0) {
+                    inventory.release(flightId, heldSeats);
+                }
+                pending.result.completeExceptionally(e);
+                continue;
+            }
+
+            if (quote.confirmation) {
+                metrics.bookingDecision(ActivityMetrics.BookingDecision.CONFIRMED);
+            } else if (request.isCancellation) {
+                metrics.bookingDecision(ActivityMetrics.BookingDecision.CANCELLED);
+            } else {
+                metrics.bookingDecision(ActivityMetrics.BookingDecision.REJECTED_NO_SEATS);
+            }
+            metrics.recordLatency(ActivityMetrics.Operation.BOOK_FLIGHT, pending.startNanos);
+            pending.result.complete(quote.toBookingResult());
+        }
+    }
+
+    private void quote(long flightId, BookingRequest request) {
+        quotes.quote(flightId, request.passengers, request.bookingTime, request.passengers, request.currentPrice,
+                request.previousSales, request.isCancellation, request.departureTime, request.rewardPointsAvailable, quote);
+    }
+}
@@ -0,0 +1,149 @@
+package activity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import activity.FlightBookingSystem.BookingResult;
+
+// Keeps the previousSales demand signal of every flight up to date as bookings and
+// cancellations happen, so pricing needs no count of past sales. Sales are summed over a
+// sliding window split into buckets: a sale goes into the current bucket's LongAdder, and
+// buckets older than the window are dropped as time moves on. Recording a sale and reading
+// the signal are both constant time; the window is only walked once per bucket.
+public class DemandPricingEngine {
+
+    static class Demand {
+        final LongAdder totalSales = new LongAdder();
+        // Ring of bucket counters; replaced only while holding the lock
+        final LongAdder[] window;
+        volatile LongAdder current;
+        volatile long currentBucket;
+        // Sales of the window's closed buckets, summed when the current bucket changes
+        volatile long closedSales;
+
+        Demand(int buckets, long bucket) {
+            window = new LongAdder[buckets];
+            for (int i = 0; i < buckets; i++) {
+                window[i] = new LongAdder();
+            }
+            currentBucket = bucket;
+            current = window[slot(bucket)];
+        }
+
+        // Sales recorded late land in the current bucket, so they leave the window a little later.
+        // A sale racing a bucket change may be missing from closedSales until the next change.
+        void record(long bucket, long passengers) {
+            totalSales.add(passengers);
+            if (bucket > currentBucket) {
+                advance(bucket);
+            }
+            current.add(passengers);
+        }
+
+        long windowSales(long bucket) {
+            if (bucket > currentBucket) {
+                advance(bucket);
+            }
+            return closedSales + current.sum();
+        }
+
+        synchronized void advance(long bucket) {
+            if (bucket <= currentBucket) {
+                return;
+            }
+            long expired = Math.min(bucket - currentBucket, window.length);
+            for (long next = bucket - expired + 1; next <= bucket; next++) {
+                window[slot(next)] = new LongAdder();
+            }
+            LongAdder newCurrent = window[slot(bucket)];
+            long closed = 0;
+            for (LongAdder counter : window) {
+                if (counter != newCurrent) {
+                    closed += counter.sum();
+                }
+            }
+            closedSales = closed;
+            current = newCurrent;
+            currentBucket = bucket;
+        }
+
+        private int slot(long bucket) {
+            return (int) Math.floorMod(bucket, (long) window.length);
+        }
+    }
+
+    private final Map<Long, Demand> flights = new ConcurrentHashMap<>();
+    private final long bucketMillis;
+    private final int buckets;
+
+    public DemandPricingEngine(Duration window, int buckets) {
+        if (buckets < 1 || window.toMillis() < buckets) {
+            throw new IllegalArgumentException("Window needs at least one bucket of at least a millisecond");
+        }
+        this.bucketMillis = window.toMillis() / buckets;
+        this.buckets = buckets;
+    }
+
+    public void recordBooking(long flightId, int passengers, LocalDateTime time) {
+        long bucket = bucketOf(time);
+        demand(flightId, bucket).record(bucket, passengers);
+    }
+
+    public void recordCancellation(long flightId, int passengers, LocalDateTime time) {
+        long bucket = bucketOf(time);
+        demand(flightId, bucket).record(bucket, -passengers);
+    }
+
+    // Net passengers sold in the window ending at the given time, as bookFlight's previousSales
+    public int previousSales(long flightId, LocalDateTime time) {
+        long bucket = bucketOf(time);
+        return previousSales(demand(flightId, bucket), bucket);
+    }
+
+    public double priceFactor(long flightId, LocalDateTime time) {
+        return FlightBookingSystem.priceFactor(previousSales(flightId, time));
+    }
+
+    // Net passengers sold since the flight was first seen
+    public long totalSales(long flightId) {
+        Demand demand = flights.get(flightId);
+        return demand == null ? 0 : demand.totalSales.sum();
+    }
+
+    public void forget(long flightId) {
+        flights.remove(flightId);
+    }
+
+    // bookFlight with previousSales taken from the window; the outcome is recorded in turn
+    public BookingResult bookFlight(FlightBookingSystem flightBookingSystem, long flightId, int passengers,
+                                    LocalDateTime bookingTime, int availableSeats, double currentPrice,
+                                    boolean isCancellation, LocalDateTime departureTime, int rewardPointsAvailable) {
+        long bucket = bucketOf(bookingTime);
+        Demand demand = demand(flightId, bucket);
+        BookingResult result = flightBookingSystem.bookFlight(passengers, bookingTime, availableSeats, currentPrice,
+                previousSales(demand, bucket), isCancellation, departureTime, rewardPointsAvailable);
+
+        if (result.confirmation) {
+            demand.record(bucket, passengers);
+        } else if (isCancellation && passengers <= availableSeats) {
+            demand.record(bucket, -passengers);
+        }
+        return result;
+    }
+
+    private Demand demand(long flightId, long bucket) {
+        return flights.computeIfAbsent(flightId, id -> new Demand(buckets, bucket));
+    }
+
+    // Cancellations of sales that already left the window could make the net negative
+    private static int previousSales(Demand demand, long bucket) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, demand.windowSales(bucket)));
+    }
+
+    private long bucketOf(LocalDateTime time) {
+        return Math.floorDiv(EpochTime.toEpochMillis(time), bucketMillis);
+    }
+}
@@ -0,0 +1,87 @@
+package activity;
+
+import java.util.Arrays;
+import java.util.Map;
+
+// Assigns every device an int id and keeps priorities as bytes and bitmasks, so
+// manageEnergy can work on device ids without hashing names or boxing values.
+// The devices manageEnergy refers to by name always have the ids below.
+public class DeviceRegistry {
+
+    static final int HEATING = 0;
+    static final int COOLING = 1;
+    static final int SECURITY = 2;
+    static final int REFRIGERATOR = 3;
+
+    private final StringDictionary names = new StringDictionary();
+    byte[] priorities = new byte[64];
+    // One bit per device id: devices with a priority, and those with a priority above 1
+    long[] prioritized = new long[1];
+    long[] lowPriority = new long[1];
+
+    public DeviceRegistry() {
+        idOf("Heating");
+        idOf("Cooling");
+        idOf("Security");
+        idOf("Refrigerator");
+    }
+
+    public static DeviceRegistry of(Map<String, Integer> devicePriorities) {
+        DeviceRegistry registry = new DeviceRegistry();
+        for (Map.Entry<String, Integer> entry : devicePriorities.entrySet()) {
+            registry.register(entry.getKey(), entry.getValue());
+        }
+        return registry;
+    }
+
+    public int register(String device, int priority) {
+        int id = idOf(device);
+        // Only "priority > 1" matters, which the clamp keeps
+        priorities[id] = (byte) Math.max(Byte.MIN_VALUE, Math.min(Byte.MAX_VALUE, priority));
+        prioritized[id >>> 6] |= 1L << id;
+        if (priority > 1) {
+            lowPriority[id >>> 6] |= 1L << id;
+        } else {
+            lowPriority[id >>> 6] &= ~(1L << id);
+        }
+        return id;
+    }
+
+    // Returns the id of the device, registering it without a priority on first sight
+    public int idOf(String device) {
+        int id = names.idOf(device);
+        if (id >= priorities.length) {
+            priorities = Arrays.copyOf(priorities, Math.max(id + 1, priorities.length * 2));
+        }
+        if ((id >>> 6) >= prioritized.length) {
+            prioritized = Arrays.copyOf(prioritized, (priorities.length + 63) >>> 6);
+            lowPriority = Arrays.copyOf(lowPriority, prioritized.length);
+        }
+        return id;
+    }
+
+    // Returns -1 for devices that were never registered
+    public int lookup(String device) {
+        return names.lookup(device);
+    }
+
+    public String nameOf(int id) {
+        return names.nameOf(id);
+    }
+
+    public boolean hasPriority(int id) {
+        return id < size() && (prioritized[id >>> 6] & (1L << id)) != 0;
+    }
+
+    public int priority(int id) {
+        return priorities[id];
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    int words() {
+        return prioritized.length;
+    }
+}
@@ -0,0 +1,189 @@
+package activity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+
+// Hierarchical timing wheel for device schedules. Time is cut into ticks; level k has 64
+// slots of 64^k ticks each. A schedule sits at the lowest level whose slot period it shares
+// with the current tick and moves down a level whenever the wheel enters its slot, so
+// firing costs O(1) per due schedule no matter how many schedules are pending. The
+// per-level occupancy masks let advanceTo jump straight to the next occupied slot, so an
+// idle gap costs nothing per empty round. Within its tick a schedule fires only once the
+// time reaches its own scheduled time.
+public class DeviceScheduler {
+
+    static final int WHEEL_BITS = 6;
+    static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    static final int LEVELS = 5;
+
+    static class Entry {
+        // Tick the scheduled time falls in
+        final long deadline;
+        final long epochMillis;
+        final int subMillisNanos;
+        final DeviceSchedule schedule;
+        Entry next;
+
+        Entry(long deadline, long epochMillis, int subMillisNanos, DeviceSchedule schedule) {
+            this.deadline = deadline;
+            this.epochMillis = epochMillis;
+            this.subMillisNanos = subMillisNanos;
+            this.schedule = schedule;
+        }
+    }
+
+    private final long tickMillis;
+    private final Entry[][] wheels = new Entry[LEVELS][WHEEL_SIZE];
+    // One bit per non-empty slot of each level
+    private final long[] occupied = new long[LEVELS];
+    // Schedules beyond the top level, and schedules of the current or earlier ticks, which fire
+    // once an advance reaches their time
+    private Entry overflow;
+    private Entry due;
+    private long currentTick;
+    private int pending;
+
+    public DeviceScheduler(LocalDateTime start) {
+        this(Duration.ofMinutes(1), start);
+    }
+
+    public DeviceScheduler(Duration tick, LocalDateTime start) {
+        this.tickMillis = tick.toMillis();
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be at least one millisecond");
+        }
+        this.currentTick = Math.floorDiv(EpochTime.toEpochMillis(start), tickMillis);
+    }
+
+    // A schedule fires on the first advance to a time at or after its scheduled time
+    public void schedule(DeviceSchedule schedule) {
+        long epochMillis = EpochTime.toEpochMillis(schedule.scheduledTime);
+        insert(new Entry(Math.floorDiv(epochMillis, tickMillis), epochMillis, EpochTime.subMillisNanos(schedule.scheduledTime),
+                schedule));
+        pending++;
+    }
+
+    // Returns every schedule that fell due up to the given time, including the ones of skipped ticks
+    public List<DeviceSchedule> advanceTo(LocalDateTime time) {
+        long epochMillis = EpochTime.toEpochMillis(time);
+        int subMillisNanos = EpochTime.subMillisNanos(time);
+        long targetTick = Math.floorDiv(epochMillis, tickMillis);
+        List<DeviceSchedule> fired = new ArrayList<>();
+        drainDue(fired, epochMillis, subMillisNanos);
+
+        while (currentTick < targetTick) {
+            long nextTick = nextOccupiedTick();
+            if (nextTick > targetTick) {
+                currentTick = targetTick;
+                break;
+            }
+            currentTick = nextTick;
+
+            cascade();
+            Entry entry = takeSlot(0, (int) (currentTick & WHEEL_MASK));
+            while (entry != null) {
+                Entry next = entry.next;
+                entry.next = due;
+                due = entry;
+                entry = next;
+            }
+            drainDue(fired, epochMillis, subMillisNanos);
+        }
+        return fired;
+    }
+
+    public int size() {
+        return pending;
+    }
+
+    // First tick after the current one at which the wheel enters an occupied slot. Slots ahead
+    // on a lower level come before any slot on a higher one, and the overflow comes last.
+    private long nextOccupiedTick() {
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = WHEEL_BITS * level;
+            int position = (int) ((currentTick >>> shift) & WHEEL_MASK);
+            long ahead = position == WHEEL_MASK ? 0 : occupied[level] & (-1L << (position + 1));
+            if (ahead != 0) {
+                long round = currentTick >>> (shift + WHEEL_BITS) << (shift + WHEEL_BITS);
+                return round | (long) Long.numberOfTrailingZeros(ahead) << shift;
+            }
+        }
+        if (overflow != null) {
+            return ((currentTick >>> (WHEEL_BITS * LEVELS)) + 1) << (WHEEL_BITS * LEVELS);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    // Moves the schedules of every slot the wheel has just entered one or more levels down
+    private void cascade() {
+        if ((currentTick & ((1L << (WHEEL_BITS * LEVELS)) - 1)) == 0) {
+            Entry entry = overflow;
+            overflow = null;
+            reinsert(entry);
+        }
+        for (int level = LEVELS - 1; level > 0; level--) {
+            if ((currentTick & ((1L << (WHEEL_BITS * level)) - 1)) == 0) {
+                reinsert(takeSlot(level, (int) ((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK)));
+            }
+        }
+    }
+
+    private void reinsert(Entry entry) {
+        while (entry != null) {
+            Entry next = entry.next;
+            insert(entry);
+            entry = next;
+        }
+    }
+
+    private void insert(Entry entry) {
+        if (entry.deadline <= currentTick) {
+            entry.next = due;
+            due = entry;
+            return;
+        }
+        int level = (63 - Long.numberOfLeadingZeros(entry.deadline ^ currentTick)) / WHEEL_BITS;
+        if (level >= LEVELS) {
+            entry.next = overflow;
+            overflow = entry;
+            return;
+        }
+        int slot = (int) ((entry.deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+        entry.next = wheels[level][slot];
+        wheels[level][slot] = entry;
+        occupied[level] |= 1L << slot;
+    }
+
+    private Entry takeSlot(int level, int slot) {
+        Entry entry = wheels[level][slot];
+        wheels[level][slot] = null;
+        occupied[level] &= ~(1L << slot);
+        return entry;
+    }
+
+    // Fires the due schedules whose time has come; the rest are later in the current tick
+    private void drainDue(List<DeviceSchedule> fired, long epochMillis, int subMillisNanos) {
+        Entry entry = due;
+        due = null;
+        while (entry != null) {
+            Entry next = entry.next;
+            if (entry.epochMillis < epochMillis || entry.epochMillis == epochMillis && entry.subMillisNanos <= subMillisNanos) {
+                fire(entry, fired);
+            } else {
+                entry.next = due;
+                due = entry;
+            }
+            entry = next;
+        }
+    }
+
+    private void fire(Entry entry, List<DeviceSchedule> fired) {
+        fired.add(entry.schedule);
+        pending--;
+    }
+}
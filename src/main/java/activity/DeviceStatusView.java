@@ -0,0 +1,181 @@
+package activity;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Map<String, Boolean> over the status bitmasks of a DeviceRegistry. Names and Boolean
+// values are only produced when the map is read; ids can be read without either.
+public class DeviceStatusView extends AbstractMap<String, Boolean> {
+
+    private final DeviceRegistry devices;
+    // One bit per device id: part of the status map, and switched on
+    private long[] present;
+    private long[] on;
+
+    DeviceStatusView(DeviceRegistry devices, long[] present, long[] on) {
+        this.devices = devices;
+        this.present = present;
+        this.on = on;
+    }
+
+    public boolean isPresent(int id) {
+        return (id >>> 6) < present.length && (present[id >>> 6] & (1L << id)) != 0;
+    }
+
+    public boolean isOn(int id) {
+        return (id >>> 6) < on.length && (on[id >>> 6] & (1L << id)) != 0;
+    }
+
+    public void set(int id, boolean status) {
+        if ((id >>> 6) >= present.length) {
+            present = Arrays.copyOf(present, (id >>> 6) + 1);
+            on = Arrays.copyOf(on, present.length);
+        }
+        present[id >>> 6] |= 1L << id;
+        if (status) {
+            on[id >>> 6] |= 1L << id;
+        } else {
+            on[id >>> 6] &= ~(1L << id);
+        }
+    }
+
+    @Override
+    public Boolean get(Object device) {
+        int id = device instanceof String ? devices.lookup((String) device) : -1;
+        return id >= 0 && isPresent(id) ? isOn(id) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object device) {
+        int id = device instanceof String ? devices.lookup((String) device) : -1;
+        return id >= 0 && isPresent(id);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (!(value instanceof Boolean)) {
+            return false;
+        }
+        boolean status = (Boolean) value;
+        for (int i = 0; i < present.length; i++) {
+            if ((present[i] & (status ? on[i] : ~on[i])) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Boolean put(String device, Boolean status) {
+        if (status == null) {
+            throw new NullPointerException("Status of device " + device + " must be true or false, not null");
+        }
+        int id = devices.idOf(device);
+        Boolean previous = isPresent(id) ? isOn(id) : null;
+        set(id, status);
+        return previous;
+    }
+
+    @Override
+    public Boolean remove(Object device) {
+        int id = device instanceof String ? devices.lookup((String) device) : -1;
+        if (id < 0 || !isPresent(id)) {
+            return null;
+        }
+        boolean previous = isOn(id);
+        present[id >>> 6] &= ~(1L << id);
+        on[id >>> 6] &= ~(1L << id);
+        return previous;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (long word : present) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    // Number of devices that are switched on
+    public int countOn() {
+        int count = 0;
+        for (int i = 0; i < on.length; i++) {
+            count += Long.bitCount(present[i] & on[i]);
+        }
+        return count;
+    }
+
+    // Number of devices of the mask that are switched on
+    int countOn(long[] mask) {
+        int count = 0;
+        for (int i = 0; i < Math.min(mask.length, on.length); i++) {
+            count += Long.bitCount(present[i] & on[i] & mask[i]);
+        }
+        return count;
+    }
+
+    // Switches off every device of the mask
+    void switchOff(long[] mask) {
+        for (int i = 0; i < Math.min(mask.length, on.length); i++) {
+            on[i] &= ~mask[i];
+        }
+    }
+
+    @Override
+    public Set<Entry<String, Boolean>> entrySet() {
+        return new AbstractSet<Entry<String, Boolean>>() {
+            @Override
+            public Iterator<Entry<String, Boolean>> iterator() {
+                return new Iterator<Entry<String, Boolean>>() {
+                    int next = nextPresent(0);
+                    int current = -1;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public Entry<String, Boolean> next() {
+                        if (next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        current = next;
+                        next = nextPresent(current + 1);
+                        return new SimpleImmutableEntry<>(devices.nameOf(current), isOn(current));
+                    }
+
+                    @Override
+                    public void remove() {
+                        DeviceStatusView.this.remove(devices.nameOf(current));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return DeviceStatusView.this.size();
+            }
+        };
+    }
+
+    private int nextPresent(int from) {
+        int word = from >>> 6;
+        if (word >= present.length) {
+            return -1;
+        }
+        long bits = present[word] & (-1L << from);
+        while (bits == 0) {
+            if (++word == present.length) {
+                return -1;
+            }
+            bits = present[word];
+        }
+        return word * 64 + Long.numberOfTrailingZeros(bits);
+    }
+}
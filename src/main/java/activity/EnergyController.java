@@ -0,0 +1,220 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+// Keeps the device status of one home between ticks. Each event recomputes only the
+// devices it can affect and returns the changes; a null value means the device is
+// no longer part of the status map. While today's usage is at or above the limit the
+// shutdown stage touches every device, so events then fall back to a full manageEnergy.
+// Schedules are dropped once the clock has passed them, so the controller's clock is
+// expected to only move forward.
+public class EnergyController {
+
+    private final SmartEnergyManagementSystem energySystem = new SmartEnergyManagementSystem();
+    private final Map<String, Integer> devicePriorities;
+    private final DeviceRegistry devices;
+    private final List<String> lowPriorityDevices = new ArrayList<>();
+    private final double[] desiredTemperatureRange;
+    private final NavigableMap<LocalDateTime, Set<String>> schedulesByTime = new TreeMap<>();
+
+    private double currentPrice;
+    private double priceThreshold;
+    private LocalDateTime currentTime;
+    private double currentTemperature;
+    private double energyUsageLimit;
+    private double totalEnergyUsedToday;
+
+    private final Map<String, Boolean> deviceStatus = new HashMap<>();
+    private boolean energySavingMode;
+    private boolean nightMode;
+    private boolean temperatureRegulationActive;
+    private double totalEnergyUsed;
+
+    public EnergyController(double currentPrice, double priceThreshold, Map<String, Integer> devicePriorities,
+                            LocalDateTime currentTime, double currentTemperature, double[] desiredTemperatureRange,
+                            double energyUsageLimit, double totalEnergyUsedToday, List<DeviceSchedule> scheduledDevices) {
+        this.currentPrice = currentPrice;
+        this.priceThreshold = priceThreshold;
+        this.devicePriorities = new HashMap<>(devicePriorities);
+        this.devices = DeviceRegistry.of(devicePriorities);
+        this.currentTime = currentTime;
+        this.currentTemperature = currentTemperature;
+        this.desiredTemperatureRange = desiredTemperatureRange.clone();
+        this.energyUsageLimit = energyUsageLimit;
+        this.totalEnergyUsedToday = totalEnergyUsedToday;
+
+        for (Map.Entry<String, Integer> entry : this.devicePriorities.entrySet()) {
+            if (entry.getValue() > 1) {
+                lowPriorityDevices.add(entry.getKey());
+            }
+        }
+        for (DeviceSchedule schedule : scheduledDevices) {
+            addSchedule(schedule);
+        }
+        recomputeAll(new HashMap<>());
+    }
+
+    public Map<String, Boolean> onPriceChange(double currentPrice, double priceThreshold) {
+        this.currentPrice = currentPrice;
+        this.priceThreshold = priceThreshold;
+        Map<String, Boolean> changes = new HashMap<>();
+        if (isShedding()) {
+            recomputeAll(changes);
+            return changes;
+        }
+
+        boolean savingMode = currentPrice > priceThreshold;
+        if (savingMode != energySavingMode) {
+            energySavingMode = savingMode;
+            recompute(lowPriorityDevices, changes);
+        }
+        return changes;
+    }
+
+    public Map<String, Boolean> onTimeTick(LocalDateTime currentTime) {
+        Set<String> previouslyDue = dueAt(this.currentTime);
+        this.currentTime = currentTime;
+        schedulesByTime.headMap(currentTime, false).clear();
+        Map<String, Boolean> changes = new HashMap<>();
+        if (isShedding()) {
+            recomputeAll(changes);
+            return changes;
+        }
+
+        boolean night = isNight(currentTime);
+        if (night != nightMode) {
+            nightMode = night;
+            recompute(devicePriorities.keySet(), changes);
+        }
+        recompute(previouslyDue, changes);
+        recompute(dueAt(currentTime), changes);
+        return changes;
+    }
+
+    public Map<String, Boolean> onTemperatureReading(double currentTemperature) {
+        this.currentTemperature = currentTemperature;
+        Map<String, Boolean> changes = new HashMap<>();
+        if (isShedding()) {
+            recomputeAll(changes);
+            return changes;
+        }
+
+        temperatureRegulationActive = isCold() || isHot();
+        recompute(List.of("Heating", "Cooling"), changes);
+        return changes;
+    }
+
+    // A schedule the clock has already passed never fires
+    public Map<String, Boolean> onSchedule(DeviceSchedule schedule) {
+        addSchedule(schedule);
+        Map<String, Boolean> changes = new HashMap<>();
+        if (isShedding()) {
+            recomputeAll(changes);
+        } else if (schedule.scheduledTime.equals(currentTime)) {
+            recompute(List.of(schedule.deviceName), changes);
+        }
+        return changes;
+    }
+
+    public Map<String, Boolean> onEnergyUsage(double totalEnergyUsedToday, double energyUsageLimit) {
+        boolean wasShedding = isShedding();
+        this.totalEnergyUsedToday = totalEnergyUsedToday;
+        this.energyUsageLimit = energyUsageLimit;
+        Map<String, Boolean> changes = new HashMap<>();
+        if (wasShedding || isShedding()) {
+            recomputeAll(changes);
+        } else {
+            totalEnergyUsed = totalEnergyUsedToday;
+        }
+        return changes;
+    }
+
+    public EnergyManagementResult result() {
+        return new EnergyManagementResult(new HashMap<>(deviceStatus), energySavingMode, temperatureRegulationActive, totalEnergyUsed);
+    }
+
+    private boolean isShedding() {
+        return totalEnergyUsedToday >= energyUsageLimit;
+    }
+
+    private void recomputeAll(Map<String, Boolean> changes) {
+        EnergyManagementResult result = energySystem.manageDevices(currentPrice > priceThreshold, devices, currentTime.getHour(),
+                currentTemperature, desiredTemperatureRange[0], desiredTemperatureRange[1], energyUsageLimit, totalEnergyUsedToday);
+        for (String device : dueAt(currentTime)) {
+            result.deviceStatus.put(device, true);
+        }
+
+        for (Map.Entry<String, Boolean> entry : result.deviceStatus.entrySet()) {
+            update(entry.getKey(), entry.getValue(), changes);
+        }
+        for (String device : new ArrayList<>(deviceStatus.keySet())) {
+            if (!result.deviceStatus.containsKey(device)) {
+                update(device, null, changes);
+            }
+        }
+        energySavingMode = result.energySavingMode;
+        temperatureRegulationActive = result.temperatureRegulationActive;
+        totalEnergyUsed = result.totalEnergyUsed;
+        nightMode = isNight(currentTime);
+    }
+
+    // Status manageEnergy gives the devices when the shutdown stage does not run. The rules run
+    // on the registry's bitmasks, which costs a few words per event, and only the given
+    // devices are compared.
+    private void recompute(Iterable<String> devices, Map<String, Boolean> changes) {
+        DeviceStatusView status = energySystem.deviceStatus(energySavingMode, this.devices, currentTime.getHour(),
+                currentTemperature, desiredTemperatureRange[0], desiredTemperatureRange[1]);
+        Set<String> due = dueAt(currentTime);
+        for (String device : devices) {
+            update(device, due.contains(device) ? Boolean.TRUE : status.get(device), changes);
+        }
+    }
+
+    private void update(String device, Boolean status, Map<String, Boolean> changes) {
+        Boolean previous = status == null ? deviceStatus.remove(device) : deviceStatus.put(device, status);
+        if (!Objects.equals(previous, status)) {
+            changes.put(device, status);
+        }
+    }
+
+    // Number of schedule times still held
+    int scheduledTimes() {
+        return schedulesByTime.size();
+    }
+
+    private void addSchedule(DeviceSchedule schedule) {
+        if (schedule.scheduledTime.isBefore(currentTime)) {
+            return;
+        }
+        schedulesByTime.computeIfAbsent(schedule.scheduledTime, time -> new HashSet<>()).add(schedule.deviceName);
+    }
+
+    private Set<String> dueAt(LocalDateTime time) {
+        return schedulesByTime.getOrDefault(time, Collections.emptySet());
+    }
+
+    private boolean isCold() {
+        return currentTemperature < desiredTemperatureRange[0];
+    }
+
+    private boolean isHot() {
+        return !isCold() && currentTemperature > desiredTemperatureRange[1];
+    }
+
+    private static boolean isNight(LocalDateTime time) {
+        return time.getHour() >= 23 || time.getHour() < 6;
+    }
+}
@@ -0,0 +1,167 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+// Runs manageEnergy for many households at once. Households are independent apart from
+// the price inputs, so the price decision is taken once and the households are split
+// across the pool's workers.
+public class EnergyFleet {
+
+    // Inputs of the fleet, one column per manageEnergy argument and one row per household.
+    // Households may share a DeviceRegistry as long as nothing registers devices during a run.
+    // Schedules are matched against the household's time when it is added, so only the ids
+    // of the devices due then are kept, in one flat array with an offset per household.
+    public static class Households {
+        DeviceRegistry[] devices;
+        long[] currentTimes;
+        double[] temperatures;
+        double[] minTemperatures;
+        double[] maxTemperatures;
+        double[] energyUsageLimits;
+        double[] totalEnergyUsedToday;
+        // Household i turns on scheduledDeviceIds[scheduleOffsets[i]] up to scheduleOffsets[i + 1]
+        int[] scheduleOffsets;
+        int[] scheduledDeviceIds = new int[16];
+        int size;
+
+        public Households(int capacity) {
+            devices = new DeviceRegistry[capacity];
+            currentTimes = new long[capacity];
+            temperatures = new double[capacity];
+            minTemperatures = new double[capacity];
+            maxTemperatures = new double[capacity];
+            energyUsageLimits = new double[capacity];
+            totalEnergyUsedToday = new double[capacity];
+            scheduleOffsets = new int[capacity + 1];
+        }
+
+        public int add(DeviceRegistry householdDevices, LocalDateTime currentTime, double currentTemperature,
+                       double[] desiredTemperatureRange, double energyUsageLimit, double energyUsedToday) {
+            return add(householdDevices, currentTime, currentTemperature, desiredTemperatureRange, energyUsageLimit,
+                    energyUsedToday, List.of());
+        }
+
+        // Devices of schedules due at currentTime are registered in householdDevices
+        public int add(DeviceRegistry householdDevices, LocalDateTime currentTime, double currentTemperature,
+                       double[] desiredTemperatureRange, double energyUsageLimit, double energyUsedToday,
+                       List<DeviceSchedule> scheduledDevices) {
+            if (size == devices.length) {
+                int capacity = Math.max(16, size * 2);
+                devices = Arrays.copyOf(devices, capacity);
+                currentTimes = Arrays.copyOf(currentTimes, capacity);
+                temperatures = Arrays.copyOf(temperatures, capacity);
+                minTemperatures = Arrays.copyOf(minTemperatures, capacity);
+                maxTemperatures = Arrays.copyOf(maxTemperatures, capacity);
+                energyUsageLimits = Arrays.copyOf(energyUsageLimits, capacity);
+                totalEnergyUsedToday = Arrays.copyOf(totalEnergyUsedToday, capacity);
+                scheduleOffsets = Arrays.copyOf(scheduleOffsets, capacity + 1);
+            }
+            int scheduled = scheduleOffsets[size];
+            for (DeviceSchedule schedule : scheduledDevices) {
+                if (schedule.scheduledTime.equals(currentTime)) {
+                    if (scheduled == scheduledDeviceIds.length) {
+                        scheduledDeviceIds = Arrays.copyOf(scheduledDeviceIds, scheduled * 2);
+                    }
+                    scheduledDeviceIds[scheduled++] = householdDevices.idOf(schedule.deviceName);
+                }
+            }
+            scheduleOffsets[size + 1] = scheduled;
+            devices[size] = householdDevices;
+            currentTimes[size] = EpochTime.toEpochMillis(currentTime);
+            temperatures[size] = currentTemperature;
+            minTemperatures[size] = desiredTemperatureRange[0];
+            maxTemperatures[size] = desiredTemperatureRange[1];
+            energyUsageLimits[size] = energyUsageLimit;
+            totalEnergyUsedToday[size] = energyUsedToday;
+            return size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void clear() {
+            Arrays.fill(devices, 0, size, null);
+            scheduleOffsets[0] = 0;
+            size = 0;
+        }
+    }
+
+    // Results of the fleet, indexed like the households. Energy-saving mode only
+    // depends on the price, so it is the same for every household.
+    public static class FleetResult {
+        final boolean energySavingMode;
+        final boolean[] temperatureRegulationActive;
+        final double[] totalEnergyUsed;
+        final DeviceStatusView[] deviceStatus;
+
+        FleetResult(boolean energySavingMode, int size) {
+            this.energySavingMode = energySavingMode;
+            this.temperatureRegulationActive = new boolean[size];
+            this.totalEnergyUsed = new double[size];
+            this.deviceStatus = new DeviceStatusView[size];
+        }
+
+        public int size() {
+            return totalEnergyUsed.length;
+        }
+
+        public boolean energySavingMode() {
+            return energySavingMode;
+        }
+
+        public boolean temperatureRegulationActive(int household) {
+            return temperatureRegulationActive[household];
+        }
+
+        public double totalEnergyUsed(int household) {
+            return totalEnergyUsed[household];
+        }
+
+        public DeviceStatusView deviceStatus(int household) {
+            return deviceStatus[household];
+        }
+    }
+
+    private final SmartEnergyManagementSystem energySystem;
+    private final ForkJoinPool pool;
+
+    public EnergyFleet(SmartEnergyManagementSystem energySystem) {
+        this(energySystem, ForkJoinPool.commonPool());
+    }
+
+    public EnergyFleet(SmartEnergyManagementSystem energySystem, ForkJoinPool pool) {
+        this.energySystem = energySystem;
+        this.pool = pool;
+    }
+
+    public FleetResult manageEnergy(double currentPrice, double priceThreshold, Households households) {
+        boolean energySavingMode = currentPrice > priceThreshold;
+        FleetResult result = new FleetResult(energySavingMode, households.size);
+
+        // A parallel stream started from inside the pool runs on the pool's workers
+        pool.submit(() -> IntStream.range(0, households.size).parallel().forEach(household -> {
+            EnergyManagementResult householdResult = energySystem.manageDevices(energySavingMode, households.devices[household],
+                    EpochTime.hourOfDay(households.currentTimes[household]), households.temperatures[household],
+                    households.minTemperatures[household], households.maxTemperatures[household],
+                    households.energyUsageLimits[household], households.totalEnergyUsedToday[household]);
+            DeviceStatusView deviceStatus = (DeviceStatusView) householdResult.deviceStatus;
+            // Handle scheduled devices
+            for (int i = households.scheduleOffsets[household]; i < households.scheduleOffsets[household + 1]; i++) {
+                deviceStatus.set(households.scheduledDeviceIds[i], true);
+            }
+            result.temperatureRegulationActive[household] = householdResult.temperatureRegulationActive;
+            result.totalEnergyUsed[household] = householdResult.totalEnergyUsed;
+            result.deviceStatus[household] = deviceStatus;
+        })).join();
+
+        return result;
+    }
+}
@@ -0,0 +1,195 @@
+package activity;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+// Replays a price and temperature series through manageEnergy for many parameter sets in
+// one pass. Samples are streamed and only each scenario's running totals are kept, so memory
+// does not grow with the length of the series.
+//
+// Every sample's decision holds until the next sample; the last one gets no duration.
+// Each device that is on draws deviceKilowatts, and the energy used today restarts at midnight.
+public class EnergySimulation {
+
+    // Binary series: big-endian epoch millis, price and temperature per sample
+    static final int SAMPLE_BYTES = Long.BYTES + 2 * Double.BYTES;
+    static final long MILLIS_PER_HOUR = 3_600_000;
+    static final long MILLIS_PER_DAY = 24 * MILLIS_PER_HOUR;
+
+    public static class Scenario {
+        final double priceThreshold;
+        final double energyUsageLimit;
+        double deviceHours;
+        double energySavingModeHours;
+        double totalEnergyUsed;
+        // Decision of the latest sample, credited once the next sample arrives
+        double energyUsedToday;
+        int devicesOn;
+        boolean energySavingMode;
+
+        Scenario(double priceThreshold, double energyUsageLimit) {
+            this.priceThreshold = priceThreshold;
+            this.energyUsageLimit = energyUsageLimit;
+        }
+
+        public double priceThreshold() {
+            return priceThreshold;
+        }
+
+        public double energyUsageLimit() {
+            return energyUsageLimit;
+        }
+
+        public double deviceHours() {
+            return deviceHours;
+        }
+
+        public double energySavingModeHours() {
+            return energySavingModeHours;
+        }
+
+        public double totalEnergyUsed() {
+            return totalEnergyUsed;
+        }
+    }
+
+    private final SmartEnergyManagementSystem energySystem;
+    private final DeviceRegistry devices;
+    private final double minTemperature;
+    private final double maxTemperature;
+    private final double deviceKilowatts;
+    private final List<Scenario> scenarios = new ArrayList<>();
+    private long lastSampleMillis = Long.MIN_VALUE;
+    private long samples;
+
+    public EnergySimulation(SmartEnergyManagementSystem energySystem, DeviceRegistry devices,
+                            double[] desiredTemperatureRange, double deviceKilowatts) {
+        this.energySystem = energySystem;
+        this.devices = devices;
+        this.minTemperature = desiredTemperatureRange[0];
+        this.maxTemperature = desiredTemperatureRange[1];
+        this.deviceKilowatts = deviceKilowatts;
+    }
+
+    public Scenario addScenario(double priceThreshold, double energyUsageLimit) {
+        if (samples > 0) {
+            throw new IllegalStateException("Scenarios must be added before the first sample");
+        }
+        Scenario scenario = new Scenario(priceThreshold, energyUsageLimit);
+        scenarios.add(scenario);
+        return scenario;
+    }
+
+    public List<Scenario> scenarios() {
+        return scenarios;
+    }
+
+    public long samples() {
+        return samples;
+    }
+
+    // Advances every scenario to the sample. Samples must arrive in timestamp order.
+    public void advance(long epochMillis, double currentPrice, double currentTemperature) {
+        if (epochMillis < lastSampleMillis) {
+            throw new IllegalArgumentException("Samples must arrive in timestamp order");
+        }
+        boolean newDay = samples > 0
+                && Math.floorDiv(epochMillis, MILLIS_PER_DAY) != Math.floorDiv(lastSampleMillis, MILLIS_PER_DAY);
+        double hours = samples == 0 ? 0 : (double) (epochMillis - lastSampleMillis) / MILLIS_PER_HOUR;
+        int hourOfDay = EpochTime.hourOfDay(epochMillis);
+
+        for (Scenario scenario : scenarios) {
+            // Credit the previous decision for the time it was in force
+            double energy = scenario.devicesOn * deviceKilowatts * hours;
+            scenario.deviceHours += scenario.devicesOn * hours;
+            scenario.totalEnergyUsed += energy;
+            scenario.energyUsedToday = newDay ? 0 : scenario.energyUsedToday + energy;
+            if (scenario.energySavingMode) {
+                scenario.energySavingModeHours += hours;
+            }
+
+            EnergyManagementResult result = energySystem.manageDevices(currentPrice > scenario.priceThreshold, devices,
+                    hourOfDay, currentTemperature, minTemperature, maxTemperature,
+                    scenario.energyUsageLimit, scenario.energyUsedToday);
+            scenario.devicesOn = ((DeviceStatusView) result.deviceStatus).countOn();
+            scenario.energySavingMode = result.energySavingMode;
+        }
+
+        lastSampleMillis = epochMillis;
+        samples++;
+    }
+
+    // Lines of "time,price,temperature" with an ISO-8601 local time. A header line is skipped.
+    public void replayCsv(Path series) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(series, StandardCharsets.UTF_8)) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || !Character.isDigit(line.charAt(0))) {
+                    continue;
+                }
+                int firstComma = line.indexOf(',');
+                int secondComma = line.indexOf(',', firstComma + 1);
+                if (firstComma < 0 || secondComma < 0) {
+                    throw new IOException("Malformed sample on line " + lineNumber + " of " + series);
+                }
+                try {
+                    advance(EpochTime.toEpochMillis(LocalDateTime.parse(line.substring(0, firstComma).trim())),
+                            Double.parseDouble(line.substring(firstComma + 1, secondComma)),
+                            Double.parseDouble(line.substring(secondComma + 1)));
+                } catch (RuntimeException e) {
+                    throw new IOException("Malformed sample on line " + lineNumber + " of " + series, e);
+                }
+            }
+        }
+    }
+
+    public void replayBinary(Path series) throws IOException {
+        try (FileChannel channel = FileChannel.open(series, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(4096 * SAMPLE_BYTES);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                while (buffer.remaining() >= SAMPLE_BYTES) {
+                    advance(buffer.getLong(), buffer.getDouble(), buffer.getDouble());
+                }
+                buffer.compact();
+            }
+            if (buffer.position() > 0) {
+                throw new IOException("Truncated sample at the end of " + series);
+            }
+        }
+    }
+
+    static void writeBinary(Path series, long[] epochMillis, double[] prices, double[] temperatures) throws IOException {
+        try (FileChannel channel = FileChannel.open(series, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(4096 * SAMPLE_BYTES);
+            for (int i = 0; i < epochMillis.length; i++) {
+                if (buffer.remaining() < SAMPLE_BYTES) {
+                    buffer.flip();
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                    buffer.clear();
+                }
+                buffer.putLong(epochMillis[i]).putDouble(prices[i]).putDouble(temperatures[i]);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Primitive time arithmetic on epoch milliseconds. LocalDateTime has no zone,
+// so UTC is used as a fixed reference and differences match Duration.between.
+// Instants finer than a millisecond carry the nanoseconds within their millisecond
+// separately, and differences between them are truncated exactly like Duration's.
+final class EpochTime {
+
+    static final long MILLIS_PER_SECOND = 1000;
+    static final int NANOS_PER_MILLI = 1_000_000;
+
+    private EpochTime() {
+    }
+
+    static long toEpochMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    // The part of the time that toEpochMillis truncates away
+    static int subMillisNanos(LocalDateTime time) {
+        return time.getNano() % NANOS_PER_MILLI;
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis) {
+        return toLocalDateTime(epochMillis, 0);
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis, int subMillisNanos) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, MILLIS_PER_SECOND),
+                (int) Math.floorMod(epochMillis, MILLIS_PER_SECOND) * NANOS_PER_MILLI + subMillisNanos, ZoneOffset.UTC);
+    }
+
+    // Same truncation as Duration.between(from, to).toMinutes()
+    static long minutesBetween(long fromEpochMillis, long toEpochMillis) {
+        return Math.floorDiv(toEpochMillis - fromEpochMillis, MILLIS_PER_SECOND) / 60;
+    }
+
+    // Same truncation as Duration.between(from, to).toHours()
+    static long hoursBetween(long fromEpochMillis, long toEpochMillis) {
+        return Math.floorDiv(toEpochMillis - fromEpochMillis, MILLIS_PER_SECOND) / 3600;
+    }
+
+    // A difference with a negative sub-millisecond part is one millisecond less plus a part below
+    // one millisecond, which never moves the difference across a whole second
+    static long minutesBetween(long fromEpochMillis, int fromSubMillisNanos, long toEpochMillis, int toSubMillisNanos) {
+        return minutesBetween(fromEpochMillis, toSubMillisNanos < fromSubMillisNanos ? toEpochMillis - 1 : toEpochMillis);
+    }
+
+    static long hoursBetween(long fromEpochMillis, int fromSubMillisNanos, long toEpochMillis, int toSubMillisNanos) {
+        return hoursBetween(fromEpochMillis, toSubMillisNanos < fromSubMillisNanos ? toEpochMillis - 1 : toEpochMillis);
+    }
+
+    // Same as Duration.between(from, to).toHours()
+    static long hoursBetween(LocalDateTime from, LocalDateTime to) {
+        return hoursBetween(toEpochMillis(from), subMillisNanos(from), toEpochMillis(to), subMillisNanos(to));
+    }
+
+    // Same as toLocalDateTime(epochMillis).getHour()
+    static int hourOfDay(long epochMillis) {
+        return (int) Math.floorMod(Math.floorDiv(epochMillis, 3600 * MILLIS_PER_SECOND), 24L);
+    }
+}
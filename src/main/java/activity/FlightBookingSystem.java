@@ -20,9 +20,44 @@ public class FlightBookingSystem {
         }
     }
 
+    private final ActivityMetrics metrics;
+
+    public FlightBookingSystem() {
+        this(ActivityMetrics.NOOP);
+    }
+
+    public FlightBookingSystem(ActivityMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     public BookingResult bookFlight(int passengers, LocalDateTime bookingTime, int availableSeats,
                                     double currentPrice, int previousSales, boolean isCancellation,
                                     LocalDateTime departureTime, int rewardPointsAvailable) {
+        long startNanos = metrics.startTimer();
+        BookingResult result = price(passengers, bookingTime, availableSeats, currentPrice, previousSales, isCancellation,
+                departureTime, rewardPointsAvailable);
+
+        if (result.confirmation) {
+            metrics.bookingDecision(ActivityMetrics.BookingDecision.CONFIRMED);
+        } else if (isCancellation && passengers <= availableSeats) {
+            metrics.bookingDecision(ActivityMetrics.BookingDecision.CANCELLED);
+        } else {
+            metrics.bookingDecision(ActivityMetrics.BookingDecision.REJECTED_NO_SEATS);
+        }
+        metrics.recordLatency(ActivityMetrics.Operation.BOOK_FLIGHT, startNanos);
+        return result;
+    }
+
+    // What bookFlight answers when there are fewer seats than passengers, for callers that
+    // track seats themselves and already know the booking cannot be seated
+    BookingResult rejectForLackOfSeats() {
+        metrics.bookingDecision(ActivityMetrics.BookingDecision.REJECTED_NO_SEATS);
+        return new BookingResult(false, 0, 0, false);
+    }
+
+    private BookingResult price(int passengers, LocalDateTime bookingTime, int availableSeats,
+                                double currentPrice, int previousSales, boolean isCancellation,
+                                LocalDateTime departureTime, int rewardPointsAvailable) {
         double finalPrice = 0;
         double refundAmount = 0;
         boolean confirmation = false;
@@ -34,12 +69,41 @@ public class FlightBookingSystem {
         }
 
         // Dynamic pricing based on sales and demand index
-        double priceFactor = (previousSales / 100.0) * 0.8;
-        finalPrice = currentPrice * priceFactor * passengers;
+        long hoursToDeparture = Duration.between(bookingTime, departureTime).toHours();
+        finalPrice = totalPrice(unitPrice(currentPrice, previousSales), passengers, hoursToDeparture < 24, rewardPointsAvailable);
+
+        // Reward points redemption
+        pointsUsed = rewardPointsAvailable > 0;
+
+        // Cancellations
+        if (isCancellation) {
+            refundAmount = refund(finalPrice, hoursToDeparture >= 48);
+            return new BookingResult(false, 0, refundAmount, false);
+        }
+        confirmation = true;
+
+        return new BookingResult(confirmation, finalPrice, refundAmount, pointsUsed);
+    }
+
+    // The pricing steps, shared with FlightQuoteEngine. Each keeps the original order of
+    // floating-point operations, so every caller gets bit-identical prices.
+
+    // Demand multiplier of the seat price
+    static double priceFactor(int previousSales) {
+        return (previousSales / 100.0) * 0.8;
+    }
+
+    // Price of one seat before fees and discounts
+    static double unitPrice(double currentPrice, int previousSales) {
+        double priceFactor = priceFactor(previousSales);
+        return currentPrice * priceFactor;
+    }
+
+    static double totalPrice(double unitPrice, int passengers, boolean lastMinute, int rewardPointsAvailable) {
+        double finalPrice = unitPrice * passengers;
 
         // Last-minute fee
-        long hoursToDeparture = Duration.between(bookingTime, departureTime).toHours();
-        if (hoursToDeparture < 24) {
+        if (lastMinute) {
             finalPrice += 100;
         }
 
@@ -51,20 +115,11 @@ public class FlightBookingSystem {
         // Reward points redemption
         if (rewardPointsAvailable > 0) {
             finalPrice -= rewardPointsAvailable * 0.01;
-            pointsUsed = true;
         }
+        return finalPrice;
+    }
 
-        // Cancellations
-        if (isCancellation) {
-            if (hoursToDeparture >= 48) {
-                refundAmount = finalPrice;
-            } else {
-                refundAmount = finalPrice * 0.5;
-            }
-            return new BookingResult(false, 0, refundAmount, false);
-        }
-        confirmation = true;
-
-        return new BookingResult(confirmation, finalPrice, refundAmount, pointsUsed);
+    static double refund(double totalPrice, boolean fullRefund) {
+        return fullRefund ? totalPrice : totalPrice * 0.5;
     }
 }
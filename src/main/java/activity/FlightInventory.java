@@ -0,0 +1,160 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import activity.FlightBookingSystem.BookingResult;
+
+// Seat counts per flight, reserved and released with CAS instead of caller-side locks.
+// A busy flight splits its seats over several stripes so threads mostly update different
+// cache lines. A reservation first tries the calling thread's stripe; when that stripe is
+// short it gathers all stripes under the flight's lock, so a booking is only rejected when
+// the flight as a whole lacks the seats, and no stripe ever goes below zero. Releases go
+// through the same lock, so they can be capped at the flight's capacity.
+public class FlightInventory {
+
+    // Ints per stripe, so each stripe sits on its own 64-byte cache line
+    static final int STRIPE_SPACING = 16;
+
+    static class Seats {
+        final AtomicIntegerArray stripes;
+        final int stripeCount;
+        final int capacity;
+
+        Seats(int seats, int stripeCount) {
+            this.stripes = new AtomicIntegerArray(stripeCount * STRIPE_SPACING);
+            this.stripeCount = stripeCount;
+            this.capacity = seats;
+            spread(seats);
+        }
+
+        boolean reserve(int passengers) {
+            int index = stripeOfCurrentThread() * STRIPE_SPACING;
+            int available;
+            while ((available = stripes.get(index)) >= passengers) {
+                if (stripes.compareAndSet(index, available, available - passengers)) {
+                    return true;
+                }
+            }
+            return reserveFromAllStripes(passengers);
+        }
+
+        // Slow path: gather every stripe, take the seats if they add up, spread the rest again
+        synchronized boolean reserveFromAllStripes(int passengers) {
+            int available = 0;
+            for (int stripe = 0; stripe < stripeCount; stripe++) {
+                available += stripes.getAndSet(stripe * STRIPE_SPACING, 0);
+            }
+            boolean reserved = available >= passengers;
+            spread(reserved ? available - passengers : available);
+            return reserved;
+        }
+
+        // Reservations only lower the stripes meanwhile, so seats that were reserved always fit
+        synchronized void release(int passengers) {
+            stripes.addAndGet(stripeOfCurrentThread() * STRIPE_SPACING, Math.min(passengers, capacity - available()));
+        }
+
+        // Applies a seat change without checking it, when replaying a log
+        void adjust(int seats) {
+            stripes.addAndGet(0, seats);
+        }
+
+        int available() {
+            int available = 0;
+            for (int stripe = 0; stripe < stripeCount; stripe++) {
+                available += stripes.get(stripe * STRIPE_SPACING);
+            }
+            return available;
+        }
+
+        private void spread(int seats) {
+            for (int stripe = 0; stripe < stripeCount; stripe++) {
+                stripes.addAndGet(stripe * STRIPE_SPACING, seats / stripeCount + (stripe < seats % stripeCount ? 1 : 0));
+            }
+        }
+
+        private int stripeOfCurrentThread() {
+            return stripeCount == 1 ? 0 : (int) (Thread.currentThread().threadId() % stripeCount);
+        }
+    }
+
+    final Map<Long, Seats> flights = new ConcurrentHashMap<>();
+
+    public void addFlight(long flightId, int seats) {
+        addFlight(flightId, seats, 1);
+    }
+
+    // Busy flights can use one stripe per core that books them
+    public void addFlight(long flightId, int seats, int stripes) {
+        if (seats < 0 || stripes < 1) {
+            throw new IllegalArgumentException("Flight " + flightId + " needs a non-negative seat count and at least one stripe");
+        }
+        if (flights.putIfAbsent(flightId, new Seats(seats, stripes)) != null) {
+            throw new IllegalArgumentException("Flight " + flightId + " is already in the inventory");
+        }
+    }
+
+    public boolean reserve(long flightId, int passengers) {
+        checkPassengers(flightId, passengers);
+        return seats(flightId).reserve(passengers);
+    }
+
+    // Seats beyond the flight's capacity are not given back
+    public void release(long flightId, int passengers) {
+        checkPassengers(flightId, passengers);
+        seats(flightId).release(passengers);
+    }
+
+    // Exact when the flight is idle, a snapshot that may be stale while it is booked
+    public int availableSeats(long flightId) {
+        return seats(flightId).available();
+    }
+
+    public void removeFlight(long flightId) {
+        flights.remove(flightId);
+    }
+
+    // bookFlight against the inventory's seat count. A booking reserves its seats before it is
+    // priced, and gives them back if pricing throws; a cancellation releases them and is never
+    // rejected for lack of seats.
+    public BookingResult bookFlight(FlightBookingSystem flightBookingSystem, long flightId, int passengers,
+                                    LocalDateTime bookingTime, double currentPrice, int previousSales,
+                                    boolean isCancellation, LocalDateTime departureTime, int rewardPointsAvailable) {
+        checkPassengers(flightId, passengers);
+        Seats seats = seats(flightId);
+        if (isCancellation) {
+            BookingResult result = flightBookingSystem.bookFlight(passengers, bookingTime, passengers, currentPrice,
+                    previousSales, true, departureTime, rewardPointsAvailable);
+            seats.release(passengers);
+            return result;
+        }
+
+        if (!seats.reserve(passengers)) {
+            return flightBookingSystem.rejectForLackOfSeats();
+        }
+        try {
+            return flightBookingSystem.bookFlight(passengers, bookingTime, passengers, currentPrice, previousSales, false,
+                    departureTime, rewardPointsAvailable);
+        } catch (RuntimeException e) {
+            seats.release(passengers);
+            throw e;
+        }
+    }
+
+    private static void checkPassengers(long flightId, int passengers) {
+        if (passengers <= 0) {
+            throw new IllegalArgumentException("Bookings of flight " + flightId + " need at least one passenger");
+        }
+    }
+
+    private Seats seats(long flightId) {
+        Seats seats = flights.get(flightId);
+        if (seats == null) {
+            throw new IllegalArgumentException("Flight " + flightId + " is not in the inventory");
+        }
+        return seats;
+    }
+}
@@ -0,0 +1,126 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import activity.FlightBookingSystem.BookingResult;
+
+// Quotes the same prices as FlightBookingSystem.bookFlight for flights that are quoted over
+// and over. Everything that depends only on the flight is computed once per change of
+// currentPrice, previousSales or departure time, and quotes go into a caller-owned Quote.
+public class FlightQuoteEngine {
+
+    static final long LAST_MINUTE_MILLIS = 24 * 3_600_000L;
+    static final long FULL_REFUND_MILLIS = 48 * 3_600_000L;
+
+    // Same fields as BookingResult, but reused between quotes
+    public static class Quote {
+        boolean confirmation;
+        double totalPrice;
+        double refundAmount;
+        boolean pointsUsed;
+
+        void set(boolean confirmation, double totalPrice, double refundAmount, boolean pointsUsed) {
+            this.confirmation = confirmation;
+            this.totalPrice = totalPrice;
+            this.refundAmount = refundAmount;
+            this.pointsUsed = pointsUsed;
+        }
+
+        public BookingResult toBookingResult() {
+            return new BookingResult(confirmation, totalPrice, refundAmount, pointsUsed);
+        }
+    }
+
+    // The flight-dependent part of a price. Hours to departure are truncated like
+    // Duration.toHours, so "under 24 hours" and "48 hours or more" become cut-off instants,
+    // kept as epoch millis plus the departure's nanoseconds within its millisecond.
+    public static class Flight {
+        final double currentPrice;
+        final int previousSales;
+        final LocalDateTime departureTime;
+        final double unitPrice;
+        // Bookings after this instant pay the last-minute fee
+        final long lastMinuteAfterMillis;
+        // Cancellations up to this instant are refunded in full
+        final long fullRefundUntilMillis;
+        final int departureSubMillisNanos;
+
+        Flight(double currentPrice, int previousSales, LocalDateTime departureTime) {
+            this.currentPrice = currentPrice;
+            this.previousSales = previousSales;
+            this.departureTime = departureTime;
+            this.unitPrice = FlightBookingSystem.unitPrice(currentPrice, previousSales);
+            long departureMillis = EpochTime.toEpochMillis(departureTime);
+            this.lastMinuteAfterMillis = departureMillis - LAST_MINUTE_MILLIS;
+            this.fullRefundUntilMillis = departureMillis - FULL_REFUND_MILLIS;
+            this.departureSubMillisNanos = EpochTime.subMillisNanos(departureTime);
+        }
+
+        boolean matches(double currentPrice, int previousSales, LocalDateTime departureTime) {
+            return this.currentPrice == currentPrice && this.previousSales == previousSales
+                    && this.departureTime.equals(departureTime);
+        }
+
+        // Price of a confirmed booking, without checking seats
+        public double totalPrice(int passengers, long bookingMillis, int rewardPointsAvailable) {
+            return totalPrice(passengers, bookingMillis, 0, rewardPointsAvailable);
+        }
+
+        double totalPrice(int passengers, long bookingMillis, int bookingSubMillisNanos, int rewardPointsAvailable) {
+            return FlightBookingSystem.totalPrice(unitPrice, passengers,
+                    isAfter(bookingMillis, bookingSubMillisNanos, lastMinuteAfterMillis), rewardPointsAvailable);
+        }
+
+        public Quote quote(int passengers, long bookingMillis, int availableSeats, boolean isCancellation,
+                           int rewardPointsAvailable, Quote quote) {
+            return quote(passengers, bookingMillis, 0, availableSeats, isCancellation, rewardPointsAvailable, quote);
+        }
+
+        Quote quote(int passengers, long bookingMillis, int bookingSubMillisNanos, int availableSeats, boolean isCancellation,
+                    int rewardPointsAvailable, Quote quote) {
+            if (passengers > availableSeats) {
+                quote.set(false, 0, 0, false);
+            } else if (isCancellation) {
+                double totalPrice = totalPrice(passengers, bookingMillis, bookingSubMillisNanos, rewardPointsAvailable);
+                boolean fullRefund = !isAfter(bookingMillis, bookingSubMillisNanos, fullRefundUntilMillis);
+                quote.set(false, 0, FlightBookingSystem.refund(totalPrice, fullRefund), false);
+            } else {
+                quote.set(true, totalPrice(passengers, bookingMillis, bookingSubMillisNanos, rewardPointsAvailable), 0,
+                        rewardPointsAvailable > 0);
+            }
+            return quote;
+        }
+
+        // Whether the booking instant lies after the cut-off, which shares the departure's sub-millisecond nanos
+        private boolean isAfter(long bookingMillis, int bookingSubMillisNanos, long cutOffMillis) {
+            return bookingMillis > cutOffMillis
+                    || bookingMillis == cutOffMillis && bookingSubMillisNanos > departureSubMillisNanos;
+        }
+    }
+
+    private final Map<Long, Flight> flights = new ConcurrentHashMap<>();
+
+    // Returns the flight's precomputed pricing, recomputing it when its inputs changed.
+    // Callers quoting in a loop can hold on to the Flight and skip the lookup.
+    public Flight flight(long flightId, double currentPrice, int previousSales, LocalDateTime departureTime) {
+        Flight flight = flights.get(flightId);
+        if (flight == null || !flight.matches(currentPrice, previousSales, departureTime)) {
+            flight = new Flight(currentPrice, previousSales, departureTime);
+            flights.put(flightId, flight);
+        }
+        return flight;
+    }
+
+    public Quote quote(long flightId, int passengers, LocalDateTime bookingTime, int availableSeats,
+                       double currentPrice, int previousSales, boolean isCancellation,
+                       LocalDateTime departureTime, int rewardPointsAvailable, Quote quote) {
+        return flight(flightId, currentPrice, previousSales, departureTime).quote(passengers, EpochTime.toEpochMillis(bookingTime),
+                EpochTime.subMillisNanos(bookingTime), availableSeats, isCancellation, rewardPointsAvailable, quote);
+    }
+
+    public void forget(long flightId) {
+        flights.remove(flightId);
+    }
+}
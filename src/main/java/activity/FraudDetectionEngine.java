@@ -0,0 +1,62 @@
+package activity;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+
+public class FraudDetectionEngine {
+
+    static final long WINDOW_MINUTES = 60;
+
+    // Transactions of one account, oldest first, none older than the window
+    static class AccountWindow {
+        final ArrayDeque<Transaction> recent = new ArrayDeque<>();
+        Transaction last;
+    }
+
+    final Map<Long, AccountWindow> windows = new HashMap<>();
+    private final LocationBlacklist blacklist;
+
+    public FraudDetectionEngine(List<String> blacklistedLocations) {
+        this(new LocationBlacklist(blacklistedLocations));
+    }
+
+    public FraudDetectionEngine(LocationBlacklist blacklist) {
+        this.blacklist = blacklist;
+    }
+
+    // Checks the transaction against the account's history and then appends it.
+    // Transactions of an account must arrive in timestamp order.
+    public FraudCheckResult checkForFraud(long accountId, Transaction currentTransaction) {
+        AccountWindow window = windows.computeIfAbsent(accountId, id -> new AccountWindow());
+        if (window.last != null && currentTransaction.isBefore(window.last)) {
+            throw new IllegalArgumentException("Transactions of account " + accountId + " must arrive in timestamp order");
+        }
+
+        // Evict transactions that no longer count as "in the last hour"
+        while (!window.recent.isEmpty()
+                && currentTransaction.minutesSince(window.recent.peekFirst()) > WINDOW_MINUTES) {
+            window.recent.pollFirst();
+        }
+
+        FraudCheckResult result = FraudDetectionSystem.evaluate(currentTransaction, window.recent.size(), window.last,
+                blacklist.contains(currentTransaction.location));
+
+        window.recent.addLast(currentTransaction);
+        window.last = currentTransaction;
+        return result;
+    }
+
+    public int recentTransactionCount(long accountId) {
+        AccountWindow window = windows.get(accountId);
+        return window == null ? 0 : window.recent.size();
+    }
+
+    public void forget(long accountId) {
+        windows.remove(accountId);
+    }
+}
@@ -1,7 +1,7 @@
 package activity;
 
-import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.List;
 
 public class FraudDetectionSystem {
@@ -9,16 +9,51 @@ public class FraudDetectionSystem {
     public static class Transaction {
         double amount;
         LocalDateTime timestamp;
+        // Same instant as epoch millis plus the nanoseconds within that millisecond; the rules only use these
+        long epochMillis;
+        int subMillisNanos;
         String location;
 
         public Transaction(double amount, LocalDateTime timestamp, String location) {
             this.amount = amount;
             this.timestamp = timestamp;
+            this.epochMillis = EpochTime.toEpochMillis(timestamp);
+            this.subMillisNanos = EpochTime.subMillisNanos(timestamp);
             this.location = location;
         }
+
+        public Transaction(double amount, long epochMillis, String location) {
+            this(amount, epochMillis, 0, location);
+        }
+
+        Transaction(double amount, long epochMillis, int subMillisNanos, String location) {
+            this.amount = amount;
+            this.timestamp = EpochTime.toLocalDateTime(epochMillis, subMillisNanos);
+            this.epochMillis = epochMillis;
+            this.subMillisNanos = subMillisNanos;
+            this.location = location;
+        }
+
+        // Same as Duration.between(earlier.timestamp, timestamp).toMinutes()
+        long minutesSince(Transaction earlier) {
+            return EpochTime.minutesBetween(earlier.epochMillis, earlier.subMillisNanos, epochMillis, subMillisNanos);
+        }
+
+        boolean isBefore(Transaction other) {
+            return epochMillis < other.epochMillis || epochMillis == other.epochMillis && subMillisNanos < other.subMillisNanos;
+        }
     }
 
     public static class FraudCheckResult {
+        public static final byte FRAUDULENT = 1;
+        public static final byte BLOCKED = 2;
+        public static final byte VERIFICATION_REQUIRED = 4;
+
+        static final int FLAGS_SHIFT = 16;
+        // Which rules fired, one bit per ActivityMetrics.Rule ordinal
+        static final int RULE_HITS_SHIFT = 24;
+        static final int RISK_SCORE_MASK = (1 << FLAGS_SHIFT) - 1;
+
         boolean isFraudulent;
         boolean isBlocked;
         boolean verificationRequired;
@@ -30,50 +65,207 @@ public class FraudDetectionSystem {
             this.verificationRequired = verificationRequired;
             this.riskScore = riskScore;
         }
+
+        static FraudCheckResult unpack(int packed) {
+            int flags = packed >>> FLAGS_SHIFT;
+            return new FraudCheckResult((flags & FRAUDULENT) != 0, (flags & BLOCKED) != 0,
+                    (flags & VERIFICATION_REQUIRED) != 0, packed & RISK_SCORE_MASK);
+        }
     }
 
-    public FraudCheckResult checkForFraud(Transaction currentTransaction, List<Transaction> previousTransactions, List<String> blacklistedLocations) {
-        boolean isFraudulent = false;
-        boolean isBlocked = false;
-        boolean verificationRequired = false;
-        int riskScore = 0;
+    // Transactions of one account stored column-wise, in arrival order
+    public static class TransactionBatch {
+        long[] timestamps;
+        int[] subMillisNanos;
+        double[] amounts;
+        int[] locationIds;
+        int size;
 
-        // Check transaction amount
-        if (currentTransaction.amount > 10000) {
-            isFraudulent = true;
-            verificationRequired = true;
-            riskScore += 50;
+        public TransactionBatch(int capacity) {
+            timestamps = new long[capacity];
+            subMillisNanos = new int[capacity];
+            amounts = new double[capacity];
+            locationIds = new int[capacity];
         }
 
-        // Check for excessive transactions in the last hour
+        public void add(long epochMillis, double amount, int locationId) {
+            add(epochMillis, 0, amount, locationId);
+        }
+
+        void add(long epochMillis, int subMillisNanos, double amount, int locationId) {
+            if (size == timestamps.length) {
+                int capacity = Math.max(16, size * 2);
+                timestamps = Arrays.copyOf(timestamps, capacity);
+                this.subMillisNanos = Arrays.copyOf(this.subMillisNanos, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+                locationIds = Arrays.copyOf(locationIds, capacity);
+            }
+            timestamps[size] = epochMillis;
+            this.subMillisNanos[size] = subMillisNanos;
+            amounts[size] = amount;
+            locationIds[size] = locationId;
+            size++;
+        }
+
+        public void add(Transaction transaction, StringDictionary locations) {
+            add(transaction.epochMillis, transaction.subMillisNanos, transaction.amount, locations.idOf(transaction.location));
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void clear() {
+            size = 0;
+        }
+
+        boolean isTimeSorted() {
+            for (int i = 1; i < size; i++) {
+                if (timestamps[i] < timestamps[i - 1]
+                        || timestamps[i] == timestamps[i - 1] && subMillisNanos[i] < subMillisNanos[i - 1]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Same as Duration.between(timestamp of from, timestamp of to).toMinutes()
+        long minutesBetween(int from, int to) {
+            return EpochTime.minutesBetween(timestamps[from], subMillisNanos[from], timestamps[to], subMillisNanos[to]);
+        }
+    }
+
+    private final ActivityMetrics metrics;
+
+    public FraudDetectionSystem() {
+        this(ActivityMetrics.NOOP);
+    }
+
+    public FraudDetectionSystem(ActivityMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public FraudCheckResult checkForFraud(Transaction currentTransaction, List<Transaction> previousTransactions, List<String> blacklistedLocations) {
+        return checkForFraud(currentTransaction, previousTransactions, blacklistedLocations.contains(currentTransaction.location));
+    }
+
+    public FraudCheckResult checkForFraud(Transaction currentTransaction, List<Transaction> previousTransactions, LocationBlacklist blacklist) {
+        return checkForFraud(currentTransaction, previousTransactions, blacklist.contains(currentTransaction.location));
+    }
+
+    private FraudCheckResult checkForFraud(Transaction currentTransaction, List<Transaction> previousTransactions, boolean blacklisted) {
+        long startNanos = metrics.startTimer();
+
+        // Count transactions in the last hour
         int recentTransactionCount = 0;
         for (Transaction transaction : previousTransactions) {
-            if (Duration.between(transaction.timestamp, currentTransaction.timestamp).toMinutes() <= 60) {
+            if (currentTransaction.minutesSince(transaction) <= 60) {
                 recentTransactionCount++;
             }
         }
+
+        Transaction lastTransaction = previousTransactions.isEmpty() ? null : previousTransactions.get(previousTransactions.size() - 1);
+        int packed = evaluatePacked(currentTransaction, recentTransactionCount, lastTransaction, blacklisted);
+
+        metrics.fraudRuleHits(packed >>> FraudCheckResult.RULE_HITS_SHIFT);
+        metrics.recordLatency(ActivityMetrics.Operation.CHECK_FOR_FRAUD, startNanos);
+        return FraudCheckResult.unpack(packed);
+    }
+
+    // Scores every transaction of one account's batch against the transactions before it in the batch.
+    // Scores and FraudCheckResult flags are written to the caller's arrays at the same index.
+    public void checkForFraud(TransactionBatch batch, LocationBlacklist blacklist, int[] riskScores, byte[] flags) {
+        if (batch.isTimeSorted()) {
+            checkSortedBatch(batch, blacklist, riskScores, flags);
+        } else {
+            checkUnsortedBatch(batch, blacklist, riskScores, flags);
+        }
+    }
+
+    // One pass: the window start only moves forward as the timestamps grow
+    private void checkSortedBatch(TransactionBatch batch, LocationBlacklist blacklist, int[] riskScores, byte[] flags) {
+        int windowStart = 0;
+        for (int i = 0; i < batch.size; i++) {
+            while (batch.minutesBetween(windowStart, i) > 60) {
+                windowStart++;
+            }
+            store(i, evaluateBatchEntry(batch, i, i - windowStart, blacklist), riskScores, flags);
+        }
+    }
+
+    private void checkUnsortedBatch(TransactionBatch batch, LocationBlacklist blacklist, int[] riskScores, byte[] flags) {
+        for (int i = 0; i < batch.size; i++) {
+            int recentTransactionCount = 0;
+            for (int j = 0; j < i; j++) {
+                if (batch.minutesBetween(j, i) <= 60) {
+                    recentTransactionCount++;
+                }
+            }
+            store(i, evaluateBatchEntry(batch, i, recentTransactionCount, blacklist), riskScores, flags);
+        }
+    }
+
+    private static int evaluateBatchEntry(TransactionBatch batch, int i, int recentTransactionCount, LocationBlacklist blacklist) {
+        long minutesSinceLastTransaction = i == 0 ? 0 : batch.minutesBetween(i - 1, i);
+        boolean locationChanged = i > 0 && batch.locationIds[i - 1] != batch.locationIds[i];
+        return evaluate(batch.amounts[i], recentTransactionCount, minutesSinceLastTransaction, locationChanged,
+                blacklist.containsId(batch.locationIds[i]));
+    }
+
+    private static void store(int i, int packed, int[] riskScores, byte[] flags) {
+        riskScores[i] = packed & FraudCheckResult.RISK_SCORE_MASK;
+        flags[i] = (byte) (packed >>> FraudCheckResult.FLAGS_SHIFT);
+    }
+
+    // Applies the fraud rules to facts already gathered from the history
+    static FraudCheckResult evaluate(Transaction currentTransaction, int recentTransactionCount, Transaction lastTransaction, boolean blacklisted) {
+        return FraudCheckResult.unpack(evaluatePacked(currentTransaction, recentTransactionCount, lastTransaction, blacklisted));
+    }
+
+    private static int evaluatePacked(Transaction currentTransaction, int recentTransactionCount, Transaction lastTransaction, boolean blacklisted) {
+        long minutesSinceLastTransaction = 0;
+        boolean locationChanged = false;
+        if (lastTransaction != null) {
+            minutesSinceLastTransaction = currentTransaction.minutesSince(lastTransaction);
+            locationChanged = !lastTransaction.location.equals(currentTransaction.location);
+        }
+        return evaluate(currentTransaction.amount, recentTransactionCount, minutesSinceLastTransaction, locationChanged, blacklisted);
+    }
+
+    // Returns the result packed as ruleHits << RULE_HITS_SHIFT | flags << FLAGS_SHIFT | riskScore
+    static int evaluate(double amount, int recentTransactionCount, long minutesSinceLastTransaction, boolean locationChanged, boolean blacklisted) {
+        int ruleHits = 0;
+        int flags = 0;
+        int riskScore = 0;
+
+        // Check transaction amount
+        if (amount > 10000) {
+            ruleHits |= 1 << ActivityMetrics.Rule.AMOUNT.ordinal();
+            flags |= FraudCheckResult.FRAUDULENT | FraudCheckResult.VERIFICATION_REQUIRED;
+            riskScore += 50;
+        }
+
+        // Check for excessive transactions in the last hour
         if (recentTransactionCount > 10) {
-            isBlocked = true;
+            ruleHits |= 1 << ActivityMetrics.Rule.VELOCITY.ordinal();
+            flags |= FraudCheckResult.BLOCKED;
             riskScore += 30;
         }
 
         // Check for location change within a short time frame
-        if (!previousTransactions.isEmpty()) {
-            Transaction lastTransaction = previousTransactions.get(previousTransactions.size() - 1);
-            long minutesSinceLastTransaction = Duration.between(lastTransaction.timestamp, currentTransaction.timestamp).toMinutes();
-            if (minutesSinceLastTransaction < 30 && !lastTransaction.location.equals(currentTransaction.location)) {
-                isFraudulent = true;
-                verificationRequired = true;
-                riskScore += 20;
-            }
+        if (locationChanged && minutesSinceLastTransaction < 30) {
+            ruleHits |= 1 << ActivityMetrics.Rule.LOCATION_CHANGE.ordinal();
+            flags |= FraudCheckResult.FRAUDULENT | FraudCheckResult.VERIFICATION_REQUIRED;
+            riskScore += 20;
         }
 
         // Blacklist check
-        if (blacklistedLocations.contains(currentTransaction.location)) {
-            isBlocked = true;
+        if (blacklisted) {
+            ruleHits |= 1 << ActivityMetrics.Rule.BLACKLIST.ordinal();
+            flags |= FraudCheckResult.BLOCKED;
             riskScore = 100;
         }
 
-        return new FraudCheckResult(isFraudulent, isBlocked, verificationRequired, riskScore);
+        return ruleHits << FraudCheckResult.RULE_HITS_SHIFT | flags << FraudCheckResult.FLAGS_SHIFT | riskScore;
     }
 }
@@ -0,0 +1,29 @@
+package activity;
+
+import activity.FraudRulePipeline.Assessment;
+import activity.FraudRulePipeline.Context;
+
+public interface FraudRule {
+
+    // Parts of the outcome a rule may change, same bits as the FraudCheckResult flags
+    int FRAUDULENT = FraudDetectionSystem.FraudCheckResult.FRAUDULENT;
+    int BLOCKED = FraudDetectionSystem.FraudCheckResult.BLOCKED;
+    int VERIFICATION_REQUIRED = FraudDetectionSystem.FraudCheckResult.VERIFICATION_REQUIRED;
+    int RISK_SCORE = 8;
+
+    String name();
+
+    int affects();
+
+    // Relative evaluation cost; the pipeline runs cheaper rules first
+    default int cost() {
+        return 1;
+    }
+
+    // Decisive rules fix part of the outcome when they fire and run before all others
+    default boolean decisive() {
+        return false;
+    }
+
+    void apply(Context context, Assessment assessment);
+}
@@ -0,0 +1,121 @@
+package activity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+
+public class FraudRulePipeline {
+
+    static final int ALL_OUTCOMES = FraudRule.FRAUDULENT | FraudRule.BLOCKED | FraudRule.VERIFICATION_REQUIRED | FraudRule.RISK_SCORE;
+
+    // What the rules may ask about the transaction being checked
+    public static class Context {
+        final Transaction current;
+        final List<Transaction> previousTransactions;
+        final LocationBlacklist blacklist;
+
+        Context(Transaction current, List<Transaction> previousTransactions, LocationBlacklist blacklist) {
+            this.current = current;
+            this.previousTransactions = previousTransactions;
+            this.blacklist = blacklist;
+        }
+
+        public Transaction current() {
+            return current;
+        }
+
+        public Transaction lastTransaction() {
+            return previousTransactions.isEmpty() ? null : previousTransactions.get(previousTransactions.size() - 1);
+        }
+
+        public int recentTransactionCount(long windowMinutes) {
+            int count = 0;
+            for (Transaction transaction : previousTransactions) {
+                if (current.minutesSince(transaction) <= windowMinutes) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        public boolean isBlacklisted(String location) {
+            return blacklist.contains(location);
+        }
+    }
+
+    // Outcome under construction. Raised flags and an overridden score are settled
+    // and cannot change anymore, which lets the pipeline skip the remaining rules.
+    public static class Assessment {
+        int flags;
+        int riskScore;
+        int settled;
+
+        public void flag(int outcomeFlags) {
+            flags |= outcomeFlags;
+            settled |= outcomeFlags;
+        }
+
+        public void addRisk(int points) {
+            if ((settled & FraudRule.RISK_SCORE) == 0) {
+                riskScore += points;
+            }
+        }
+
+        public void overrideRisk(int points) {
+            if ((settled & FraudRule.RISK_SCORE) == 0) {
+                riskScore = points;
+                settled |= FraudRule.RISK_SCORE;
+            }
+        }
+
+        FraudCheckResult toResult() {
+            return new FraudCheckResult((flags & FraudRule.FRAUDULENT) != 0, (flags & FraudRule.BLOCKED) != 0,
+                    (flags & FraudRule.VERIFICATION_REQUIRED) != 0, riskScore);
+        }
+    }
+
+    private final FraudRule[] rules;
+    private final int[] affects;
+
+    private FraudRulePipeline(FraudRule[] rules) {
+        this.rules = rules;
+        this.affects = new int[rules.length];
+        for (int i = 0; i < rules.length; i++) {
+            affects[i] = rules[i].affects();
+        }
+    }
+
+    // Decisive rules first, then by cost; ties keep the configured order
+    public static FraudRulePipeline compile(List<FraudRule> configuredRules) {
+        List<FraudRule> ordered = new ArrayList<>(configuredRules);
+        ordered.sort(Comparator.comparing((FraudRule rule) -> !rule.decisive()).thenComparingInt(FraudRule::cost));
+        return new FraudRulePipeline(ordered.toArray(new FraudRule[0]));
+    }
+
+    public static FraudRulePipeline defaults(FraudThresholds thresholds) {
+        return compile(FraudRules.defaults(thresholds));
+    }
+
+    public FraudCheckResult checkForFraud(Transaction currentTransaction, List<Transaction> previousTransactions, LocationBlacklist blacklist) {
+        Context context = new Context(currentTransaction, previousTransactions, blacklist);
+        Assessment assessment = new Assessment();
+        for (int i = 0; i < rules.length && assessment.settled != ALL_OUTCOMES; i++) {
+            // Skip rules that can no longer change anything
+            if ((affects[i] & ~assessment.settled) != 0) {
+                rules[i].apply(context, assessment);
+            }
+        }
+        return assessment.toResult();
+    }
+
+    public List<String> ruleOrder() {
+        List<String> names = new ArrayList<>();
+        for (FraudRule rule : rules) {
+            names.add(rule.name());
+        }
+        return names;
+    }
+}
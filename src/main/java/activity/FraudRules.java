@@ -0,0 +1,110 @@
+package activity;
+
+import java.util.Arrays;
+import java.util.List;
+
+import activity.FraudDetectionSystem.Transaction;
+import activity.FraudRulePipeline.Assessment;
+import activity.FraudRulePipeline.Context;
+
+// The rules of FraudDetectionSystem.checkForFraud as pipeline rules
+public final class FraudRules {
+
+    private FraudRules() {
+    }
+
+    public static List<FraudRule> defaults(FraudThresholds thresholds) {
+        return Arrays.asList(amount(thresholds), velocity(thresholds), locationChange(thresholds), blacklist(thresholds));
+    }
+
+    public static FraudRule amount(FraudThresholds thresholds) {
+        return new FraudRule() {
+            public String name() {
+                return "amount";
+            }
+
+            public int affects() {
+                return FRAUDULENT | VERIFICATION_REQUIRED | RISK_SCORE;
+            }
+
+            public void apply(Context context, Assessment assessment) {
+                if (context.current.amount > thresholds.amountLimit) {
+                    assessment.flag(FRAUDULENT | VERIFICATION_REQUIRED);
+                    assessment.addRisk(thresholds.amountRiskScore);
+                }
+            }
+        };
+    }
+
+    public static FraudRule velocity(FraudThresholds thresholds) {
+        return new FraudRule() {
+            public String name() {
+                return "velocity";
+            }
+
+            public int affects() {
+                return BLOCKED | RISK_SCORE;
+            }
+
+            public int cost() {
+                return 10;
+            }
+
+            public void apply(Context context, Assessment assessment) {
+                if (context.recentTransactionCount(thresholds.velocityWindowMinutes) > thresholds.velocityLimit) {
+                    assessment.flag(BLOCKED);
+                    assessment.addRisk(thresholds.velocityRiskScore);
+                }
+            }
+        };
+    }
+
+    public static FraudRule locationChange(FraudThresholds thresholds) {
+        return new FraudRule() {
+            public String name() {
+                return "locationChange";
+            }
+
+            public int affects() {
+                return FRAUDULENT | VERIFICATION_REQUIRED | RISK_SCORE;
+            }
+
+            public int cost() {
+                return 2;
+            }
+
+            public void apply(Context context, Assessment assessment) {
+                Transaction lastTransaction = context.lastTransaction();
+                if (lastTransaction != null
+                        && context.current.minutesSince(lastTransaction) < thresholds.locationChangeMinutes
+                        && !lastTransaction.location.equals(context.current.location)) {
+                    assessment.flag(FRAUDULENT | VERIFICATION_REQUIRED);
+                    assessment.addRisk(thresholds.locationChangeRiskScore);
+                }
+            }
+        };
+    }
+
+    public static FraudRule blacklist(FraudThresholds thresholds) {
+        return new FraudRule() {
+            public String name() {
+                return "blacklist";
+            }
+
+            public int affects() {
+                return BLOCKED | RISK_SCORE;
+            }
+
+            public boolean decisive() {
+                return true;
+            }
+
+            public void apply(Context context, Assessment assessment) {
+                if (context.blacklist.contains(context.current.location)) {
+                    assessment.flag(BLOCKED);
+                    assessment.overrideRisk(thresholds.blacklistRiskScore);
+                }
+            }
+        };
+    }
+}
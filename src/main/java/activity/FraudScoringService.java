@@ -0,0 +1,174 @@
+package activity;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+
+public class FraudScoringService implements AutoCloseable {
+
+    // Transactions a partition processes before yielding its thread
+    static final int DRAIN_BATCH = 256;
+
+    static class ScoringTask {
+        final long accountId;
+        final Transaction transaction;
+        final CompletableFuture<FraudCheckResult> result = new CompletableFuture<>();
+
+        ScoringTask(long accountId, Transaction transaction) {
+            this.accountId = accountId;
+            this.transaction = transaction;
+        }
+    }
+
+    // Owns the windows of its accounts; at most one thread drains it at a time,
+    // so transactions of an account are scored in submission order
+    class Partition {
+        final ConcurrentLinkedQueue<ScoringTask> queue = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final FraudDetectionEngine engine;
+
+        Partition(LocationBlacklist blacklist) {
+            engine = new FraudDetectionEngine(blacklist);
+        }
+
+        void enqueue(ScoringTask task) {
+            queue.add(task);
+            schedule();
+        }
+
+        void schedule() {
+            while (scheduled.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::drain);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // Nothing will drain the queue, so fail what it holds and let a later enqueue retry
+                    ScoringTask task;
+                    while ((task = queue.poll()) != null) {
+                        inFlight.release();
+                        task.result.completeExceptionally(e);
+                    }
+                    scheduled.set(false);
+                    if (queue.isEmpty()) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        void drain() {
+            ScoringTask task;
+            int processed = 0;
+            while (processed < DRAIN_BATCH && (task = queue.poll()) != null) {
+                FraudCheckResult result = null;
+                RuntimeException failure = null;
+                try {
+                    result = engine.checkForFraud(task.accountId, task.transaction);
+                } catch (RuntimeException e) {
+                    failure = e;
+                }
+                inFlight.release();
+                if (failure == null) {
+                    task.result.complete(result);
+                } else {
+                    task.result.completeExceptionally(failure);
+                }
+                processed++;
+            }
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final Partition[] partitions;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private volatile boolean closed;
+
+    public FraudScoringService(Executor executor, int partitionCount, int maxInFlight, LocationBlacklist blacklist) {
+        this(executor, false, partitionCount, maxInFlight, blacklist);
+    }
+
+    private FraudScoringService(Executor executor, boolean ownsExecutor, int partitionCount, int maxInFlight, LocationBlacklist blacklist) {
+        if (partitionCount < 1 || maxInFlight < 1) {
+            throw new IllegalArgumentException("partitionCount and maxInFlight must be positive");
+        }
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.partitions = new Partition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new Partition(blacklist);
+        }
+    }
+
+    public static FraudScoringService forkJoin(int parallelism, int maxInFlight, LocationBlacklist blacklist) {
+        return new FraudScoringService(new ForkJoinPool(parallelism), true, parallelism * 4, maxInFlight, blacklist);
+    }
+
+    public static FraudScoringService virtualThreads(int partitionCount, int maxInFlight, LocationBlacklist blacklist) {
+        return new FraudScoringService(Executors.newVirtualThreadPerTaskExecutor(), true, partitionCount, maxInFlight, blacklist);
+    }
+
+    // Blocks while maxInFlight transactions are waiting to be scored
+    public CompletableFuture<FraudCheckResult> submit(long accountId, Transaction transaction) throws InterruptedException {
+        inFlight.acquire();
+        checkOpen();
+        ScoringTask task = new ScoringTask(accountId, transaction);
+        partitionOf(accountId).enqueue(task);
+        return task.result;
+    }
+
+    // Same as submit, but fails fast instead of waiting for capacity
+    public CompletableFuture<FraudCheckResult> trySubmit(long accountId, Transaction transaction) {
+        if (closed) {
+            throw new IllegalStateException("Scoring service is closed");
+        }
+        if (!inFlight.tryAcquire()) {
+            return null;
+        }
+        checkOpen();
+        ScoringTask task = new ScoringTask(accountId, transaction);
+        partitionOf(accountId).enqueue(task);
+        return task.result;
+    }
+
+    // Checked again once a permit is held, so close waits for every transaction admitted before it
+    private void checkOpen() {
+        if (closed) {
+            inFlight.release();
+            throw new IllegalStateException("Scoring service is closed");
+        }
+    }
+
+    private Partition partitionOf(long accountId) {
+        long mixed = accountId * 0x9E3779B97F4A7C15L;
+        return partitions[Math.floorMod((int) (mixed >>> 32), partitions.length)];
+    }
+
+    // Waits for the submitted transactions to be scored before releasing the executor.
+    // Later submissions, and those still waiting for capacity, fail with an IllegalStateException.
+    @Override
+    public void close() {
+        closed = true;
+        inFlight.acquireUninterruptibly(maxInFlight);
+        if (ownsExecutor) {
+            ((ExecutorService) executor).close();
+        }
+        inFlight.release(maxInFlight);
+    }
+}
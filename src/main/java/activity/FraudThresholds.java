@@ -0,0 +1,38 @@
+package activity;
+
+// Read on every evaluation, so changes apply to compiled pipelines immediately
+public class FraudThresholds {
+
+    volatile double amountLimit = 10000;
+    volatile int amountRiskScore = 50;
+    volatile long velocityWindowMinutes = 60;
+    volatile int velocityLimit = 10;
+    volatile int velocityRiskScore = 30;
+    volatile long locationChangeMinutes = 30;
+    volatile int locationChangeRiskScore = 20;
+    volatile int blacklistRiskScore = 100;
+
+    public FraudThresholds amountLimit(double amountLimit, int riskScore) {
+        this.amountLimit = amountLimit;
+        this.amountRiskScore = riskScore;
+        return this;
+    }
+
+    public FraudThresholds velocityLimit(long windowMinutes, int transactionLimit, int riskScore) {
+        this.velocityWindowMinutes = windowMinutes;
+        this.velocityLimit = transactionLimit;
+        this.velocityRiskScore = riskScore;
+        return this;
+    }
+
+    public FraudThresholds locationChange(long withinMinutes, int riskScore) {
+        this.locationChangeMinutes = withinMinutes;
+        this.locationChangeRiskScore = riskScore;
+        return this;
+    }
+
+    public FraudThresholds blacklistRiskScore(int riskScore) {
+        this.blacklistRiskScore = riskScore;
+        return this;
+    }
+}
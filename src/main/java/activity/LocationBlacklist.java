@@ -0,0 +1,46 @@
+package activity;
+
+import java.util.BitSet;
+import java.util.Collection;
+
+public class LocationBlacklist {
+
+    private final StringDictionary dictionary;
+    // Replaced as a whole on refresh, never modified after publication
+    private volatile BitSet blacklistedIds;
+
+    public LocationBlacklist(Collection<String> blacklistedLocations) {
+        this(new StringDictionary(), blacklistedLocations);
+    }
+
+    public LocationBlacklist(StringDictionary dictionary, Collection<String> blacklistedLocations) {
+        this.dictionary = dictionary;
+        this.blacklistedIds = index(blacklistedLocations);
+    }
+
+    // Atomically swaps in a freshly built index; concurrent lookups see either the old or the new list
+    public void replace(Collection<String> blacklistedLocations) {
+        blacklistedIds = index(blacklistedLocations);
+    }
+
+    public boolean contains(String location) {
+        int id = dictionary.lookup(location);
+        return id >= 0 && blacklistedIds.get(id);
+    }
+
+    public boolean containsId(int locationId) {
+        return locationId >= 0 && blacklistedIds.get(locationId);
+    }
+
+    public StringDictionary dictionary() {
+        return dictionary;
+    }
+
+    private BitSet index(Collection<String> blacklistedLocations) {
+        BitSet ids = new BitSet();
+        for (String location : blacklistedLocations) {
+            ids.set(dictionary.idOf(location));
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,117 @@
+package activity;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Collects items from many threads and hands them to a handler in batches on one worker
+// thread. A batch is closed when it holds maxBatchSize items or maxDelay after its first
+// item arrived, so maxDelay bounds the latency added by waiting for a batch to fill.
+public class MicroBatcher<T> implements AutoCloseable {
+
+    // How often an idle worker checks whether the batcher was closed
+    static final long IDLE_POLL_MILLIS = 50;
+
+    private final BlockingQueue<T> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Consumer<List<T>> handler;
+    private final Thread worker;
+    private volatile boolean closed;
+    // Producers between their closed check and the end of their enqueue
+    private final AtomicInteger enqueuing = new AtomicInteger();
+
+    public MicroBatcher(String name, int maxBatchSize, Duration maxDelay, int capacity, Consumer<List<T>> handler) {
+        if (maxBatchSize < 1 || capacity < maxBatchSize) {
+            throw new IllegalArgumentException("Need a batch size of at least 1 and a capacity of at least one batch");
+        }
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.handler = handler;
+        this.worker = new Thread(this::run, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    // Blocks while the queue is full
+    public void submit(T item) throws InterruptedException {
+        enqueuing.incrementAndGet();
+        try {
+            checkOpen();
+            queue.put(item);
+        } finally {
+            enqueuing.decrementAndGet();
+        }
+    }
+
+    // Returns false instead of blocking when the queue is full
+    public boolean offer(T item) {
+        enqueuing.incrementAndGet();
+        try {
+            checkOpen();
+            return queue.offer(item);
+        } finally {
+            enqueuing.decrementAndGet();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("Batcher is closed");
+        }
+    }
+
+    // Handles every item that was accepted, including those submitted concurrently with
+    // close, and stops the worker. Items submitted after close are rejected.
+    @Override
+    public void close() throws InterruptedException {
+        closed = true;
+        worker.join();
+    }
+
+    private void run() {
+        List<T> batch = new ArrayList<>(maxBatchSize);
+        try {
+            while (true) {
+                T first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    // A producer that passed its closed check may still be adding an item
+                    if (closed && enqueuing.get() == 0 && queue.isEmpty()) {
+                        return;
+                    }
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() == maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    T next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                try {
+                    handler.accept(batch);
+                } catch (RuntimeException e) {
+                    // The handler answers its own callers; a failed batch must not stop the worker
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import activity.FlightQuoteEngine.Quote;
+
+// Bounded cache of booking quotes. Entries are keyed on flight, passengers and reward points
+// and remember the currentPrice, previousSales and hours-to-departure bucket they were priced
+// for; a lookup with a different value for any of them is a miss that replaces the entry, so
+// sales changes and 24h/48h crossings invalidate quotes without a sweep. Eviction is LRU, but
+// a new key only displaces the LRU entry when a frequency sketch has seen it more often
+// (TinyLFU admission), which keeps one-off searches from flushing popular flights.
+// Cancellations and bookings without enough seats are priced directly and never cached.
+// Large caches are split by key into segments with their own lock, LRU order and sketch,
+// so quotes of different flights rarely wait for each other.
+public class QuoteCache {
+
+    // Hours-to-departure buckets: last-minute fee below 24 hours, full refund from 48 hours
+    static final int LAST_MINUTE = 0;
+    static final int HALF_REFUND = 1;
+    static final int FULL_REFUND = 2;
+
+    // Segments never hold fewer entries than this, so admission still sees enough history
+    static final int MIN_SEGMENT_SIZE = 64;
+    static final int MAX_SEGMENTS = 16;
+
+    static final class Key {
+        final long flightId;
+        final int passengers;
+        final int rewardPointsAvailable;
+
+        Key(long flightId, int passengers, int rewardPointsAvailable) {
+            this.flightId = flightId;
+            this.passengers = passengers;
+            this.rewardPointsAvailable = rewardPointsAvailable;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return flightId == other.flightId && passengers == other.passengers
+                    && rewardPointsAvailable == other.rewardPointsAvailable;
+        }
+
+        @Override
+        public int hashCode() {
+            long hash = flightId * 0x9E3779B97F4A7C15L + passengers;
+            hash = hash * 0x9E3779B97F4A7C15L + rewardPointsAvailable;
+            return (int) (hash ^ (hash >>> 32));
+        }
+    }
+
+    static final class Entry {
+        final double currentPrice;
+        final int previousSales;
+        final int bucket;
+        final double totalPrice;
+
+        Entry(double currentPrice, int previousSales, int bucket, double totalPrice) {
+            this.currentPrice = currentPrice;
+            this.previousSales = previousSales;
+            this.bucket = bucket;
+            this.totalPrice = totalPrice;
+        }
+
+        boolean matches(double currentPrice, int previousSales, int bucket) {
+            return this.currentPrice == currentPrice && this.previousSales == previousSales && this.bucket == bucket;
+        }
+    }
+
+    // Count-min sketch of 4-bit counters, four rows. Every counter is halved once the sketch
+    // has counted ten accesses per cache entry, so old popularity fades.
+    static final class FrequencySketch {
+        static final int ROWS = 4;
+        static final long[] SEEDS = {0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+
+        final byte[][] counters;
+        final int mask;
+        final int sampleSize;
+        int additions;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, maximumSize) - 1) << 2;
+            counters = new byte[ROWS][width];
+            mask = width - 1;
+            sampleSize = 10 * Math.max(16, maximumSize);
+        }
+
+        void increment(int hash) {
+            for (int row = 0; row < ROWS; row++) {
+                int index = index(hash, row);
+                if (counters[row][index] < 15) {
+                    counters[row][index]++;
+                }
+            }
+            if (++additions == sampleSize) {
+                for (byte[] row : counters) {
+                    for (int i = 0; i < row.length; i++) {
+                        row[i] >>= 1;
+                    }
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(int hash) {
+            int frequency = Integer.MAX_VALUE;
+            for (int row = 0; row < ROWS; row++) {
+                frequency = Math.min(frequency, counters[row][index(hash, row)]);
+            }
+            return frequency;
+        }
+
+        private int index(int hash, int row) {
+            long mixed = (hash + SEEDS[row]) * SEEDS[row];
+            return (int) (mixed >>> 32) & mask;
+        }
+    }
+
+    // One lock's share of the cache: its own entries in LRU order, sketch and counters
+    static final class Segment {
+        final int maximumSize;
+        final LinkedHashMap<Key, Entry> entries;
+        final FrequencySketch sketch;
+        long hits;
+        long misses;
+        long evictions;
+        long rejections;
+        long invalidations;
+
+        Segment(int maximumSize) {
+            this.maximumSize = maximumSize;
+            this.entries = new LinkedHashMap<>(16, 0.75f, true);
+            this.sketch = new FrequencySketch(maximumSize);
+        }
+
+        synchronized double totalPrice(Key key, double currentPrice, int previousSales, int bucket) {
+            sketch.increment(key.hashCode());
+            Entry entry = entries.get(key);
+            if (entry != null && entry.matches(currentPrice, previousSales, bucket)) {
+                hits++;
+                return entry.totalPrice;
+            }
+
+            misses++;
+            double totalPrice = FlightBookingSystem.totalPrice(FlightBookingSystem.unitPrice(currentPrice, previousSales),
+                    key.passengers, bucket == LAST_MINUTE, key.rewardPointsAvailable);
+            Entry priced = new Entry(currentPrice, previousSales, bucket, totalPrice);
+            if (entry != null) {
+                invalidations++;
+                entries.put(key, priced);
+            } else {
+                admit(key, priced);
+            }
+            return totalPrice;
+        }
+
+        private void admit(Key key, Entry entry) {
+            if (entries.size() >= maximumSize) {
+                Iterator<Map.Entry<Key, Entry>> leastRecentlyUsed = entries.entrySet().iterator();
+                Key victim = leastRecentlyUsed.next().getKey();
+                if (sketch.frequency(key.hashCode()) <= sketch.frequency(victim.hashCode())) {
+                    rejections++;
+                    return;
+                }
+                leastRecentlyUsed.remove();
+                evictions++;
+            }
+            entries.put(key, entry);
+        }
+    }
+
+    private final Segment[] segments;
+
+    public QuoteCache(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("Cache needs room for at least one quote");
+        }
+        int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maximumSize / MIN_SEGMENT_SIZE)));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+        }
+    }
+
+    static int bucket(long hoursToDeparture) {
+        return hoursToDeparture < 24 ? LAST_MINUTE : hoursToDeparture < 48 ? HALF_REFUND : FULL_REFUND;
+    }
+
+    // Same result as FlightBookingSystem.bookFlight, written into the caller's Quote
+    public Quote quote(long flightId, int passengers, LocalDateTime bookingTime, int availableSeats,
+                       double currentPrice, int previousSales, boolean isCancellation,
+                       LocalDateTime departureTime, int rewardPointsAvailable, Quote quote) {
+        if (passengers > availableSeats) {
+            quote.set(false, 0, 0, false);
+            return quote;
+        }
+
+        int bucket = bucket(EpochTime.hoursBetween(bookingTime, departureTime));
+        if (isCancellation) {
+            double totalPrice = FlightBookingSystem.totalPrice(FlightBookingSystem.unitPrice(currentPrice, previousSales),
+                    passengers, bucket == LAST_MINUTE, rewardPointsAvailable);
+            quote.set(false, 0, FlightBookingSystem.refund(totalPrice, bucket == FULL_REFUND), false);
+            return quote;
+        }
+
+        Key key = new Key(flightId, passengers, rewardPointsAvailable);
+        quote.set(true, segmentOf(key).totalPrice(key, currentPrice, previousSales, bucket), 0, rewardPointsAvailable > 0);
+        return quote;
+    }
+
+    private Segment segmentOf(Key key) {
+        int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    public int size() {
+        return (int) sum(segment -> segment.entries.size());
+    }
+
+    public long hitCount() {
+        return sum(segment -> segment.hits);
+    }
+
+    public long missCount() {
+        return sum(segment -> segment.misses);
+    }
+
+    public double hitRate() {
+        long hits = hitCount();
+        long requests = hits + missCount();
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    public long evictionCount() {
+        return sum(segment -> segment.evictions);
+    }
+
+    // New keys that were not cached because the LRU entry was more popular
+    public long rejectionCount() {
+        return sum(segment -> segment.rejections);
+    }
+
+    // Entries replaced because the price, sales or hours bucket changed
+    public long invalidationCount() {
+        return sum(segment -> segment.invalidations);
+    }
+
+    private long sum(ToLongFunction<Segment> counter) {
+        long sum = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                sum += counter.applyAsLong(segment);
+            }
+        }
+        return sum;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+            }
+        }
+    }
+}
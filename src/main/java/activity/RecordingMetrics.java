@@ -0,0 +1,92 @@
+package activity;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RecordingMetrics implements ActivityMetrics {
+
+    // Point-in-time copy of all counters, taken by snapshot()
+    public static class MetricsSnapshot {
+        final Map<Operation, LatencyHistogram.Snapshot> latencies = new EnumMap<>(Operation.class);
+        final Map<Rule, Long> ruleHits = new EnumMap<>(Rule.class);
+        final Map<BookingDecision, Long> bookingDecisions = new EnumMap<>(BookingDecision.class);
+        long energyShutdownIterations;
+
+        public LatencyHistogram.Snapshot latency(Operation operation) {
+            return latencies.get(operation);
+        }
+
+        public long ruleHits(Rule rule) {
+            return ruleHits.get(rule);
+        }
+
+        public long bookingDecisions(BookingDecision decision) {
+            return bookingDecisions.get(decision);
+        }
+
+        public long energyShutdownIterations() {
+            return energyShutdownIterations;
+        }
+    }
+
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+    private final LongAdder[] ruleHits = new LongAdder[Rule.values().length];
+    private final LongAdder[] bookingDecisions = new LongAdder[BookingDecision.values().length];
+    private final LongAdder energyShutdownIterations = new LongAdder();
+
+    public RecordingMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < ruleHits.length; i++) {
+            ruleHits[i] = new LongAdder();
+        }
+        for (int i = 0; i < bookingDecisions.length; i++) {
+            bookingDecisions[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public long startTimer() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void recordLatency(Operation operation, long startNanos) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    @Override
+    public void fraudRuleHits(int hits) {
+        while (hits != 0) {
+            ruleHits[Integer.numberOfTrailingZeros(hits)].increment();
+            hits &= hits - 1;
+        }
+    }
+
+    @Override
+    public void bookingDecision(BookingDecision decision) {
+        bookingDecisions[decision.ordinal()].increment();
+    }
+
+    @Override
+    public void energyShutdownIterations(int iterations) {
+        energyShutdownIterations.add(iterations);
+    }
+
+    public MetricsSnapshot snapshot() {
+        MetricsSnapshot snapshot = new MetricsSnapshot();
+        for (Operation operation : Operation.values()) {
+            snapshot.latencies.put(operation, latencies[operation.ordinal()].snapshot());
+        }
+        for (Rule rule : Rule.values()) {
+            snapshot.ruleHits.put(rule, ruleHits[rule.ordinal()].sum());
+        }
+        for (BookingDecision decision : BookingDecision.values()) {
+            snapshot.bookingDecisions.put(decision, bookingDecisions[decision.ordinal()].sum());
+        }
+        snapshot.energyShutdownIterations = energyShutdownIterations.sum();
+        return snapshot;
+    }
+}
@@ -0,0 +1,174 @@
+package activity;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+// Refunds every booking of a disrupted departure. Bookings are read in chunks, each chunk's
+// refunds are priced in parallel, then written to the sink in booking order, so memory holds
+// one chunk however many bookings there are. Refunds match bookFlight with isCancellation set:
+// in full when the cancellation is 48 hours or more before departure, half otherwise.
+public class RefundEngine {
+
+    static final int DEFAULT_CHUNK_SIZE = 16_384;
+
+    // One column per pricing input of bookFlight, one row per booking
+    public static class Bookings {
+        long[] bookingIds;
+        int[] passengers;
+        double[] currentPrices;
+        int[] previousSales;
+        int[] rewardPoints;
+        int size;
+
+        public Bookings(int capacity) {
+            bookingIds = new long[capacity];
+            passengers = new int[capacity];
+            currentPrices = new double[capacity];
+            previousSales = new int[capacity];
+            rewardPoints = new int[capacity];
+        }
+
+        public void add(long bookingId, int bookingPassengers, double currentPrice, int bookingPreviousSales, int rewardPointsAvailable) {
+            if (size == bookingIds.length) {
+                int capacity = Math.max(16, size * 2);
+                bookingIds = Arrays.copyOf(bookingIds, capacity);
+                passengers = Arrays.copyOf(passengers, capacity);
+                currentPrices = Arrays.copyOf(currentPrices, capacity);
+                previousSales = Arrays.copyOf(previousSales, capacity);
+                rewardPoints = Arrays.copyOf(rewardPoints, capacity);
+            }
+            bookingIds[size] = bookingId;
+            passengers[size] = bookingPassengers;
+            currentPrices[size] = currentPrice;
+            previousSales[size] = bookingPreviousSales;
+            rewardPoints[size] = rewardPointsAvailable;
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void clear() {
+            size = 0;
+        }
+    }
+
+    // Fills the chunk with up to maxBookings bookings; adding none means there are no more
+    public interface BookingSource {
+        void read(Bookings chunk, int maxBookings) throws IOException;
+    }
+
+    public interface RefundSink {
+        void refund(long bookingId, double refundAmount) throws IOException;
+    }
+
+    // Writes "bookingId,refundAmount" lines
+    public static class CsvRefundWriter implements RefundSink, Closeable {
+        private final BufferedWriter writer;
+
+        public CsvRefundWriter(Path file) throws IOException {
+            this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            writer.write("bookingId,refundAmount");
+            writer.newLine();
+        }
+
+        @Override
+        public void refund(long bookingId, double refundAmount) throws IOException {
+            writer.write(Long.toString(bookingId));
+            writer.write(',');
+            writer.write(Double.toString(refundAmount));
+            writer.newLine();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    public static class RefundSummary {
+        final long bookings;
+        final double totalRefunded;
+        final boolean fullRefund;
+
+        RefundSummary(long bookings, double totalRefunded, boolean fullRefund) {
+            this.bookings = bookings;
+            this.totalRefunded = totalRefunded;
+            this.fullRefund = fullRefund;
+        }
+
+        public long bookings() {
+            return bookings;
+        }
+
+        public double totalRefunded() {
+            return totalRefunded;
+        }
+
+        public boolean fullRefund() {
+            return fullRefund;
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public RefundEngine() {
+        this(ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public RefundEngine(ForkJoinPool pool, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunks need room for at least one booking");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    public RefundSummary refundAll(BookingSource source, LocalDateTime cancellationTime, LocalDateTime departureTime,
+                                   RefundSink sink) throws IOException {
+        // Every booking shares the departure, so the 48-hour rule is decided once
+        long hoursToDeparture = EpochTime.hoursBetween(cancellationTime, departureTime);
+        boolean fullRefund = hoursToDeparture >= 48;
+        boolean lastMinute = hoursToDeparture < 24;
+
+        Bookings chunk = new Bookings(chunkSize);
+        double[] refunds = new double[chunkSize];
+        long bookings = 0;
+        double totalRefunded = 0;
+        while (true) {
+            chunk.clear();
+            source.read(chunk, chunkSize);
+            int size = chunk.size;
+            if (size == 0) {
+                break;
+            }
+            if (size > chunkSize) {
+                throw new IllegalStateException("Booking source added " + size + " bookings to a chunk of " + chunkSize);
+            }
+
+            pool.submit(() -> IntStream.range(0, size).parallel().forEach(i -> {
+                double totalPrice = FlightBookingSystem.totalPrice(
+                        FlightBookingSystem.unitPrice(chunk.currentPrices[i], chunk.previousSales[i]),
+                        chunk.passengers[i], lastMinute, chunk.rewardPoints[i]);
+                refunds[i] = FlightBookingSystem.refund(totalPrice, fullRefund);
+            })).join();
+
+            for (int i = 0; i < size; i++) {
+                sink.refund(chunk.bookingIds[i], refunds[i]);
+                totalRefunded += refunds[i];
+            }
+            bookings += size;
+        }
+        return new RefundSummary(bookings, totalRefunded, fullRefund);
+    }
+}
@@ -0,0 +1,137 @@
+package activity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import activity.FlightBookingSystem.BookingResult;
+
+// Reward points per customer. Points are reserved with a CAS on the customer's balance when a
+// booking is priced, then either committed when the booking is confirmed or released back to
+// the balance, so concurrent bookings cannot redeem the same points twice. Only bookings of the
+// same customer contend, and only on that customer's counter. ActivityStore keeps a ledger
+// durable.
+public class RewardPointsLedger {
+
+    static class Account {
+        final AtomicLong available = new AtomicLong();
+        final AtomicLong reserved = new AtomicLong();
+    }
+
+    public static class Reservation {
+        static final int PENDING = 0;
+        static final int COMMITTED = 1;
+        static final int RELEASED = 2;
+
+        final long customerId;
+        final int points;
+        final Account account;
+        final AtomicInteger state = new AtomicInteger(PENDING);
+
+        Reservation(long customerId, int points, Account account) {
+            this.customerId = customerId;
+            this.points = points;
+            this.account = account;
+        }
+
+        public long customerId() {
+            return customerId;
+        }
+
+        public int points() {
+            return points;
+        }
+    }
+
+    final Map<Long, Account> accounts = new ConcurrentHashMap<>();
+
+    public void credit(long customerId, long points) {
+        if (points < 0) {
+            throw new IllegalArgumentException("Cannot credit negative points to customer " + customerId);
+        }
+        account(customerId).available.addAndGet(points);
+    }
+
+    // Returns null when the customer has fewer points available or was never credited
+    public Reservation reserve(long customerId, int points) {
+        if (points < 0) {
+            throw new IllegalArgumentException("Cannot reserve negative points for customer " + customerId);
+        }
+        Account account = accounts.get(customerId);
+        if (account == null) {
+            return null;
+        }
+        long available;
+        do {
+            available = account.available.get();
+            if (available < points) {
+                return null;
+            }
+        } while (!account.available.compareAndSet(available, available - points));
+        account.reserved.addAndGet(points);
+        return new Reservation(customerId, points, account);
+    }
+
+    // The points are spent. Returns false if the reservation was already settled.
+    public boolean commit(Reservation reservation) {
+        if (!reservation.state.compareAndSet(Reservation.PENDING, Reservation.COMMITTED)) {
+            return false;
+        }
+        reservation.account.reserved.addAndGet(-reservation.points);
+        return true;
+    }
+
+    // The points go back to the balance. Returns false if the reservation was already settled.
+    public boolean release(Reservation reservation) {
+        if (!reservation.state.compareAndSet(Reservation.PENDING, Reservation.RELEASED)) {
+            return false;
+        }
+        reservation.account.reserved.addAndGet(-reservation.points);
+        reservation.account.available.addAndGet(reservation.points);
+        return true;
+    }
+
+    public long availablePoints(long customerId) {
+        Account account = accounts.get(customerId);
+        return account == null ? 0 : account.available.get();
+    }
+
+    public long reservedPoints(long customerId) {
+        Account account = accounts.get(customerId);
+        return account == null ? 0 : account.reserved.get();
+    }
+
+    // bookFlight redeeming the customer's points only if they can be reserved; otherwise the
+    // booking is priced without points. Points are committed if the booking is confirmed and
+    // released otherwise. Cancellations never redeem points.
+    public BookingResult bookFlight(FlightBookingSystem flightBookingSystem, long customerId, int passengers,
+                                    LocalDateTime bookingTime, int availableSeats, double currentPrice, int previousSales,
+                                    boolean isCancellation, LocalDateTime departureTime, int rewardPointsToRedeem) {
+        Reservation reservation = isCancellation || rewardPointsToRedeem <= 0 ? null : reserve(customerId, rewardPointsToRedeem);
+        BookingResult result;
+        try {
+            result = flightBookingSystem.bookFlight(passengers, bookingTime, availableSeats, currentPrice, previousSales,
+                    isCancellation, departureTime, reservation == null ? 0 : reservation.points);
+        } catch (RuntimeException e) {
+            if (reservation != null) {
+                release(reservation);
+            }
+            throw e;
+        }
+
+        if (reservation != null) {
+            if (result.confirmation) {
+                commit(reservation);
+            } else {
+                release(reservation);
+            }
+        }
+        return result;
+    }
+
+    private Account account(long customerId) {
+        return accounts.computeIfAbsent(customerId, id -> new Account());
+    }
+}
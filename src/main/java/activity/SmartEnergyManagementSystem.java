@@ -1,7 +1,6 @@
 package activity;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -31,82 +30,168 @@ public class SmartEnergyManagementSystem {
         }
     }
 
+    private final ActivityMetrics metrics;
+
+    public SmartEnergyManagementSystem() {
+        this(ActivityMetrics.NOOP);
+    }
+
+    public SmartEnergyManagementSystem(ActivityMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // The Map overloads register the caller's devices for the call and run the same rules as the
+    // DeviceRegistry overload. Registering is one pass over the map, like the status map the
+    // rules used to fill; callers that reuse their devices register them once instead.
     public EnergyManagementResult manageEnergy(double currentPrice, double priceThreshold, Map<String, Integer> devicePriorities,
                                                LocalDateTime currentTime, double currentTemperature, double[] desiredTemperatureRange,
                                                double energyUsageLimit, double totalEnergyUsedToday, List<DeviceSchedule> scheduledDevices) {
+        long startNanos = metrics.startTimer();
+        DeviceRegistry devices = DeviceRegistry.of(devicePriorities);
+        EnergyManagementResult result = manageDevices(currentPrice, priceThreshold, devices, currentTime,
+                currentTemperature, desiredTemperatureRange, energyUsageLimit, totalEnergyUsedToday);
 
-        Map<String, Boolean> deviceStatus = new HashMap<>();
-        boolean energySavingMode = false;
-        boolean temperatureRegulationActive = false;
-
-        // Activate energy-saving mode if price exceeds threshold
-        if (currentPrice > priceThreshold) {
-            energySavingMode = true;
-
-            // Turn off low-priority devices
-            for (Map.Entry<String, Integer> entry : devicePriorities.entrySet()) {
-                if (entry.getValue() > 1) {  // Priorities > 1 are low priority
-                    deviceStatus.put(entry.getKey(), false);
-                } else {
-                    deviceStatus.put(entry.getKey(), true);  // High-priority devices stay on
-                }
-            }
-        } else {
-            // No energy-saving mode; keep devices on
-            for (String device : devicePriorities.keySet()) {
-                deviceStatus.put(device, true);
+        // Handle scheduled devices
+        DeviceStatusView deviceStatus = (DeviceStatusView) result.deviceStatus;
+        for (DeviceSchedule schedule : scheduledDevices) {
+            if (schedule.scheduledTime.equals(currentTime)) {
+                deviceStatus.set(devices.idOf(schedule.deviceName), true);
             }
         }
 
-        // Night mode between 11 PM and 6 AM
-        if (currentTime.getHour() >= 23 || currentTime.getHour() < 6) {
-            for (String device : devicePriorities.keySet()) {
-                if (!device.equals("Security") && !device.equals("Refrigerator")) {
-                    deviceStatus.put(device, false);
-                }
-            }
-        }
+        metrics.recordLatency(ActivityMetrics.Operation.MANAGE_ENERGY, startNanos);
+        return result;
+    }
 
-        // Temperature regulation
-        if (currentTemperature < desiredTemperatureRange[0]) {
-            deviceStatus.put("Heating", true);
-            temperatureRegulationActive = true;
-        } else if (currentTemperature > desiredTemperatureRange[1]) {
-            deviceStatus.put("Cooling", true);
-            temperatureRegulationActive = true;
-        } else {
-            deviceStatus.put("Heating", false);
-            deviceStatus.put("Cooling", false);
+    // Same as above, but turns on the devices whose schedules fell due since the scheduler's last call,
+    // including ticks that were skipped, instead of scanning every schedule
+    public EnergyManagementResult manageEnergy(double currentPrice, double priceThreshold, Map<String, Integer> devicePriorities,
+                                               LocalDateTime currentTime, double currentTemperature, double[] desiredTemperatureRange,
+                                               double energyUsageLimit, double totalEnergyUsedToday, DeviceScheduler scheduler) {
+        return manageEnergy(currentPrice, priceThreshold, DeviceRegistry.of(devicePriorities), currentTime, currentTemperature,
+                desiredTemperatureRange, energyUsageLimit, totalEnergyUsedToday, scheduler);
+    }
+
+    // Same as above for devices that are already registered. The result's deviceStatus is a
+    // DeviceStatusView over the registry's ids; names are only looked up when it is read as a map.
+    public EnergyManagementResult manageEnergy(double currentPrice, double priceThreshold, DeviceRegistry devices,
+                                               LocalDateTime currentTime, double currentTemperature, double[] desiredTemperatureRange,
+                                               double energyUsageLimit, double totalEnergyUsedToday, DeviceScheduler scheduler) {
+        long startNanos = metrics.startTimer();
+        EnergyManagementResult result = manageDevices(currentPrice, priceThreshold, devices, currentTime,
+                currentTemperature, desiredTemperatureRange, energyUsageLimit, totalEnergyUsedToday);
+
+        // Handle scheduled devices
+        DeviceStatusView deviceStatus = (DeviceStatusView) result.deviceStatus;
+        for (DeviceSchedule schedule : scheduler.advanceTo(currentTime)) {
+            deviceStatus.set(devices.idOf(schedule.deviceName), true);
         }
 
-        // Shut down devices as energy limit is approached
-        while (totalEnergyUsedToday >= energyUsageLimit && deviceStatus.containsValue(true)) {
-            // Shut down low-priority devices first
-            for (Map.Entry<String, Integer> entry : devicePriorities.entrySet()) {
-                if (deviceStatus.get(entry.getKey()) && entry.getValue() > 1) {
-                    deviceStatus.put(entry.getKey(), false);
+        metrics.recordLatency(ActivityMetrics.Operation.MANAGE_ENERGY, startNanos);
+        return result;
+    }
+
+    private EnergyManagementResult manageDevices(double currentPrice, double priceThreshold, DeviceRegistry devices,
+                                                 LocalDateTime currentTime, double currentTemperature, double[] desiredTemperatureRange,
+                                                 double energyUsageLimit, double totalEnergyUsedToday) {
+        return manageDevices(currentPrice > priceThreshold, devices, currentTime.getHour(), currentTemperature,
+                desiredTemperatureRange[0], desiredTemperatureRange[1], energyUsageLimit, totalEnergyUsedToday);
+    }
+
+    // The price decision is taken by the caller, so a fleet of households can share it
+    EnergyManagementResult manageDevices(boolean energySavingMode, DeviceRegistry devices, int hourOfDay,
+                                         double currentTemperature, double minTemperature, double maxTemperature,
+                                         double energyUsageLimit, double totalEnergyUsedToday) {
+        DeviceStatusView deviceStatus = deviceStatus(energySavingMode, devices, hourOfDay, currentTemperature,
+                minTemperature, maxTemperature);
+        boolean temperatureRegulationActive = currentTemperature < minTemperature || currentTemperature > maxTemperature;
+        long[] prioritized = devices.prioritized;
+        long[] lowPriority = devices.lowPriority;
+
+        // Shut down devices as energy limit is approached. Each tier is switched off as a
+        // whole, so one pass per tier replaces rescanning the maps until nothing is on.
+        // Devices without a priority are never shut down.
+        int shutdownIterations = 0;
+        if (totalEnergyUsedToday >= energyUsageLimit) {
+            long[] highPriority = new long[prioritized.length];
+            for (int i = 0; i < prioritized.length; i++) {
+                highPriority[i] = prioritized[i] & ~lowPriority[i];
+            }
+            int lowPriorityOn = deviceStatus.countOn(lowPriority);
+            int highPriorityOn = deviceStatus.countOn(highPriority);
+            int devicesOn = lowPriorityOn + highPriorityOn;
+
+            if (devicesOn > 0) {
+                // Shut down low-priority devices first
+                shutdownIterations++;
+                deviceStatus.switchOff(lowPriority);
+                for (int i = 0; i < lowPriorityOn; i++) {
                     totalEnergyUsedToday -= 1;  // Simulate energy reduction
                 }
-            }
+                devicesOn -= lowPriorityOn;
 
-            // If energy limit is still high, shut down high-priority devices
-            while (totalEnergyUsedToday >= energyUsageLimit && deviceStatus.containsValue(true)) {
-                for (Map.Entry<String, Integer> entry : devicePriorities.entrySet()) {
-                    if (deviceStatus.get(entry.getKey())) {
-                        deviceStatus.put(entry.getKey(), false);
+                // If energy limit is still high, shut down high-priority devices
+                if (totalEnergyUsedToday >= energyUsageLimit && devicesOn > 0) {
+                    shutdownIterations++;
+                    deviceStatus.switchOff(highPriority);
+                    for (int i = 0; i < highPriorityOn; i++) {
                         totalEnergyUsedToday -= 1;  // Simulate energy reduction
                     }
                 }
             }
         }
 
-        // Handle scheduled devices
-        for (DeviceSchedule schedule : scheduledDevices) {
-            if (schedule.scheduledTime.equals(currentTime)) {
-                deviceStatus.put(schedule.deviceName, true);
+        metrics.energyShutdownIterations(shutdownIterations);
+
+        return new EnergyManagementResult(deviceStatus, energySavingMode, temperatureRegulationActive, totalEnergyUsedToday);
+    }
+
+    // Status of every device before the shutdown stage, which EnergyController reads device by device
+    DeviceStatusView deviceStatus(boolean energySavingMode, DeviceRegistry devices, int hourOfDay,
+                                  double currentTemperature, double minTemperature, double maxTemperature) {
+        // One bit per device id; every device with a priority is part of the result
+        long[] prioritized = devices.prioritized;
+        long[] lowPriority = devices.lowPriority;
+        long[] present = prioritized.clone();
+        long[] on = new long[prioritized.length];
+
+        // Activate energy-saving mode if price exceeds threshold
+        if (energySavingMode) {
+            // Turn off low-priority devices, high-priority devices stay on
+            for (int i = 0; i < on.length; i++) {
+                on[i] = prioritized[i] & ~lowPriority[i];
             }
+        } else {
+            // No energy-saving mode; keep devices on
+            System.arraycopy(prioritized, 0, on, 0, on.length);
         }
 
-        return new EnergyManagementResult(deviceStatus, energySavingMode, temperatureRegulationActive, totalEnergyUsedToday);
+        DeviceStatusView deviceStatus = new DeviceStatusView(devices, present, on);
+
+        // Night mode between 11 PM and 6 AM
+        if (hourOfDay >= 23 || hourOfDay < 6) {
+            boolean securityOn = deviceStatus.isOn(DeviceRegistry.SECURITY);
+            boolean refrigeratorOn = deviceStatus.isOn(DeviceRegistry.REFRIGERATOR);
+            for (int i = 0; i < on.length; i++) {
+                on[i] &= ~prioritized[i];
+            }
+            if (devices.hasPriority(DeviceRegistry.SECURITY)) {
+                deviceStatus.set(DeviceRegistry.SECURITY, securityOn);
+            }
+            if (devices.hasPriority(DeviceRegistry.REFRIGERATOR)) {
+                deviceStatus.set(DeviceRegistry.REFRIGERATOR, refrigeratorOn);
+            }
+        }
+
+        // Temperature regulation
+        if (currentTemperature < minTemperature) {
+            deviceStatus.set(DeviceRegistry.HEATING, true);
+        } else if (currentTemperature > maxTemperature) {
+            deviceStatus.set(DeviceRegistry.COOLING, true);
+        } else {
+            deviceStatus.set(DeviceRegistry.HEATING, false);
+            deviceStatus.set(DeviceRegistry.COOLING, false);
+        }
+        return deviceStatus;
     }
 }
@@ -0,0 +1,44 @@
+package activity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class StringDictionary {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final List<String> names = new ArrayList<>();
+
+    // Returns the id of the string, assigning the next free id on first sight
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        synchronized (names) {
+            id = ids.get(value);
+            if (id == null) {
+                id = names.size();
+                names.add(value);
+                ids.put(value, id);
+            }
+            return id;
+        }
+    }
+
+    // Returns the id of the string, or -1 if it was never registered
+    public int lookup(String value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    public String nameOf(int id) {
+        synchronized (names) {
+            return names.get(id);
+        }
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
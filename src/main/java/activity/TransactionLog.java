@@ -0,0 +1,286 @@
+package activity;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+
+// Append-only transaction history kept in a memory-mapped file. Records have a fixed
+// width and link to the previous record of the same account, so the last hour of an
+// account is read straight from the mapping, newest first. Only the per-account index
+// of latest records lives on the heap, and it is rebuilt with one sequential scan on open.
+//
+// The mapping may reach the disk in any order, so after an OS crash the header's record
+// count can cover records whose bytes were never written. Every record carries a checksum,
+// and open() stops at the first record that fails it. Location names are kept in a side
+// file as length-prefixed UTF-8, in id order.
+public class TransactionLog implements Closeable {
+
+    static final int MAGIC = 0x54584C47;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int COUNT_OFFSET = 8;
+
+    static final int RECORD_BYTES = 48;
+    static final int ACCOUNT_OFFSET = 0;
+    static final int TIMESTAMP_OFFSET = 8;
+    static final int AMOUNT_OFFSET = 16;
+    static final int PREVIOUS_OFFSET = 24;
+    static final int LOCATION_OFFSET = 32;
+    static final int SUB_MILLIS_OFFSET = 36;
+    // CRC32C of the bytes before it; the last 4 bytes are padding
+    static final int CHECKSUM_OFFSET = 40;
+
+    static final int SEGMENT_RECORDS = 1 << 20;
+    static final long SEGMENT_BYTES = (long) SEGMENT_RECORDS * RECORD_BYTES;
+    static final long NO_RECORD = -1;
+
+    // Open-addressing map from account id to its latest record, without boxing
+    static class AccountIndex {
+        static final long EMPTY = Long.MIN_VALUE;
+
+        long[] accounts = new long[1024];
+        long[] records = new long[1024];
+        int size;
+
+        AccountIndex() {
+            Arrays.fill(accounts, EMPTY);
+        }
+
+        long get(long accountId) {
+            int mask = accounts.length - 1;
+            for (int slot = mix(accountId) & mask; accounts[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (accounts[slot] == accountId) {
+                    return records[slot];
+                }
+            }
+            return NO_RECORD;
+        }
+
+        void put(long accountId, long record) {
+            if ((size + 1) * 2 > accounts.length) {
+                grow();
+            }
+            int mask = accounts.length - 1;
+            int slot = mix(accountId) & mask;
+            while (accounts[slot] != EMPTY && accounts[slot] != accountId) {
+                slot = (slot + 1) & mask;
+            }
+            if (accounts[slot] == EMPTY) {
+                accounts[slot] = accountId;
+                size++;
+            }
+            records[slot] = record;
+        }
+
+        private void grow() {
+            long[] oldAccounts = accounts;
+            long[] oldRecords = records;
+            accounts = new long[oldAccounts.length * 2];
+            records = new long[oldRecords.length * 2];
+            Arrays.fill(accounts, EMPTY);
+            size = 0;
+            for (int i = 0; i < oldAccounts.length; i++) {
+                if (oldAccounts[i] != EMPTY) {
+                    put(oldAccounts[i], oldRecords[i]);
+                }
+            }
+        }
+
+        private static int mix(long accountId) {
+            long mixed = accountId * 0x9E3779B97F4A7C15L;
+            return (int) (mixed ^ (mixed >>> 32));
+        }
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+    private final AccountIndex index = new AccountIndex();
+    private final StringDictionary locations = new StringDictionary();
+    private final FileChannel locationFile;
+    private final CRC32C crc = new CRC32C();
+    private long count;
+
+    private TransactionLog(FileChannel channel, FileChannel locationFile) throws IOException {
+        this.channel = channel;
+        this.locationFile = locationFile;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+    }
+
+    // Opens or creates the log; location names are kept next to it in <file>.locations
+    public static TransactionLog open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        Path locationPath = file.resolveSibling(file.getFileName() + ".locations");
+        FileChannel locationFile = FileChannel.open(locationPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        TransactionLog log = new TransactionLog(channel, locationFile);
+        log.load(file, locationPath);
+        return log;
+    }
+
+    private void load(Path file, Path locationPath) throws IOException {
+        if (header.getInt(0) == 0) {
+            header.putInt(0, MAGIC);
+            header.putInt(4, VERSION);
+            header.putLong(COUNT_OFFSET, 0);
+            return;
+        }
+        if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+            throw new IOException("Not a transaction log: " + file);
+        }
+        ByteBuffer names = ByteBuffer.wrap(Files.readAllBytes(locationPath));
+        // A name torn by a crash was never referenced by a durable record
+        while (names.remaining() >= Integer.BYTES && names.getInt(names.position()) <= names.remaining() - Integer.BYTES) {
+            byte[] name = new byte[names.getInt()];
+            names.get(name);
+            locations.idOf(new String(name, StandardCharsets.UTF_8));
+        }
+        long published = header.getLong(COUNT_OFFSET);
+        while (count < published && isIntact(count)) {
+            index.put(segment(count).getLong(offset(count) + ACCOUNT_OFFSET), count);
+            count++;
+        }
+        header.putLong(COUNT_OFFSET, count);
+    }
+
+    private boolean isIntact(long record) {
+        MappedByteBuffer segment = segment(record);
+        int offset = offset(record);
+        return segment.getInt(offset + CHECKSUM_OFFSET) == checksum(segment, offset)
+                && segment.getInt(offset + LOCATION_OFFSET) < locations.size();
+    }
+
+    private int checksum(MappedByteBuffer segment, int offset) {
+        crc.reset();
+        crc.update(segment.slice(offset, CHECKSUM_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    // Transactions of an account must be appended in timestamp order
+    public synchronized long append(long accountId, Transaction transaction) throws IOException {
+        long previous = index.get(accountId);
+        if (previous != NO_RECORD && (transaction.epochMillis < timestamp(previous)
+                || transaction.epochMillis == timestamp(previous) && transaction.subMillisNanos < subMillisNanos(previous))) {
+            throw new IllegalArgumentException("Transactions of account " + accountId + " must be appended in timestamp order");
+        }
+
+        long record = count;
+        MappedByteBuffer segment = segment(record);
+        int offset = offset(record);
+        segment.putLong(offset + ACCOUNT_OFFSET, accountId);
+        segment.putLong(offset + TIMESTAMP_OFFSET, transaction.epochMillis);
+        segment.putDouble(offset + AMOUNT_OFFSET, transaction.amount);
+        segment.putLong(offset + PREVIOUS_OFFSET, previous);
+        segment.putInt(offset + LOCATION_OFFSET, locationId(transaction.location));
+        segment.putInt(offset + SUB_MILLIS_OFFSET, transaction.subMillisNanos);
+        segment.putInt(offset + CHECKSUM_OFFSET, checksum(segment, offset));
+
+        // Publish the record only once it is fully written; the checksum covers the OS writing
+        // the header back before the record
+        count = record + 1;
+        header.putLong(COUNT_OFFSET, count);
+        index.put(accountId, record);
+        return record;
+    }
+
+    // Same result as checkForFraud with the account's logged transactions as history
+    public synchronized FraudCheckResult checkForFraud(long accountId, Transaction currentTransaction, LocationBlacklist blacklist) {
+        long last = index.get(accountId);
+        long minutesSinceLastTransaction = 0;
+        boolean locationChanged = false;
+        if (last != NO_RECORD) {
+            minutesSinceLastTransaction = EpochTime.minutesBetween(timestamp(last), subMillisNanos(last),
+                    currentTransaction.epochMillis, currentTransaction.subMillisNanos);
+            locationChanged = segment(last).getInt(offset(last) + LOCATION_OFFSET) != locations.lookup(currentTransaction.location);
+        }
+        int packed = FraudDetectionSystem.evaluate(currentTransaction.amount, recentTransactionCount(accountId, currentTransaction.epochMillis, currentTransaction.subMillisNanos),
+                minutesSinceLastTransaction, locationChanged, blacklist.contains(currentTransaction.location));
+        return FraudCheckResult.unpack(packed);
+    }
+
+    // Walks the account's chain newest first and stops at the first record outside the hour
+    public synchronized int recentTransactionCount(long accountId, long epochMillis) {
+        return recentTransactionCount(accountId, epochMillis, 0);
+    }
+
+    synchronized int recentTransactionCount(long accountId, long epochMillis, int subMillisNanos) {
+        int recentTransactionCount = 0;
+        for (long record = index.get(accountId); record != NO_RECORD; record = segment(record).getLong(offset(record) + PREVIOUS_OFFSET)) {
+            if (EpochTime.minutesBetween(timestamp(record), subMillisNanos(record), epochMillis, subMillisNanos)
+                    > FraudDetectionEngine.WINDOW_MINUTES) {
+                break;
+            }
+            recentTransactionCount++;
+        }
+        return recentTransactionCount;
+    }
+
+    public synchronized long size() {
+        return count;
+    }
+
+    public StringDictionary locations() {
+        return locations;
+    }
+
+    public synchronized void force() throws IOException {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        header.force();
+        locationFile.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        locationFile.close();
+        channel.close();
+    }
+
+    private int locationId(String location) throws IOException {
+        int known = locations.size();
+        int id = locations.idOf(location);
+        if (id >= known) {
+            byte[] name = location.getBytes(StandardCharsets.UTF_8);
+            locationFile.write(ByteBuffer.allocate(Integer.BYTES + name.length).putInt(name.length).put(name).flip());
+        }
+        return id;
+    }
+
+    private long timestamp(long record) {
+        return segment(record).getLong(offset(record) + TIMESTAMP_OFFSET);
+    }
+
+    private int subMillisNanos(long record) {
+        return segment(record).getInt(offset(record) + SUB_MILLIS_OFFSET);
+    }
+
+    private MappedByteBuffer segment(long record) {
+        int segment = (int) (record / SEGMENT_RECORDS);
+        while (segments.size() <= segment) {
+            try {
+                segments.add(channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + segments.size() * SEGMENT_BYTES, SEGMENT_BYTES));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map transaction log segment " + segments.size(), e);
+            }
+        }
+        return segments.get(segment);
+    }
+
+    private static int offset(long record) {
+        return (int) (record % SEGMENT_RECORDS) * RECORD_BYTES;
+    }
+}
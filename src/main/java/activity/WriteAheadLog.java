@@ -0,0 +1,212 @@
+package activity;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// Append-only log of typed binary records. Appends are buffered and written with one
+// FileChannel write and one fsync per group of records, so a crash loses at most the
+// records appended since the last sync. Every record carries a CRC; on open the log is
+// replayed up to the first torn or corrupt record and truncated there. Files that are
+// only ever replaced whole, like snapshots, are read with readComplete, which fails instead.
+//
+// File: magic, version, generation, then records of
+// payload length (int), type (byte), payload, CRC32C of type and payload (int).
+public class WriteAheadLog implements Closeable {
+
+    static final int MAGIC = 0x57414C47;
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_OVERHEAD = Integer.BYTES + 1 + Integer.BYTES;
+    static final int BUFFER_BYTES = 1 << 16;
+
+    public interface RecordHandler {
+        void record(byte type, ByteBuffer payload) throws IOException;
+    }
+
+    private final FileChannel channel;
+    private final int groupCommitSize;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+    private final CRC32C crc = new CRC32C();
+    private long generation;
+    private int unsynced;
+
+    private WriteAheadLog(FileChannel channel, int groupCommitSize) {
+        this.channel = channel;
+        this.groupCommitSize = groupCommitSize;
+    }
+
+    // Replays the records of the log into the handler, then positions it for appends.
+    // A new or empty file gets a header for the given generation.
+    public static WriteAheadLog open(Path file, long generation, int groupCommitSize, RecordHandler handler) throws IOException {
+        if (groupCommitSize < 1) {
+            throw new IllegalArgumentException("Group commits need at least one record");
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        WriteAheadLog log = new WriteAheadLog(channel, groupCommitSize);
+        try {
+            if (channel.size() < HEADER_BYTES) {
+                log.reset(generation);
+            } else {
+                log.load(file, handler);
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    // Replays every record of a file that must be complete, and returns its generation.
+    // A torn or corrupt record anywhere in the file is an IOException.
+    public static long readComplete(Path file, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WriteAheadLog log = new WriteAheadLog(channel, 1);
+            log.readHeader(file);
+            long validEnd = log.replay(HEADER_BYTES, handler);
+            if (validEnd < channel.size()) {
+                throw new IOException("Torn or corrupt record at offset " + validEnd + " of " + file);
+            }
+            return log.generation;
+        }
+    }
+
+    private void readHeader(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        channel.read(header, 0);
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC || header.getInt() != VERSION) {
+            throw new IOException("Not a write-ahead log: " + file);
+        }
+        generation = header.getLong();
+    }
+
+    private void load(Path file, RecordHandler handler) throws IOException {
+        readHeader(file);
+
+        long validEnd = replay(HEADER_BYTES, handler);
+        if (validEnd < channel.size()) {
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        channel.position(validEnd);
+    }
+
+    // Returns the end of the last complete record
+    private long replay(long position, RecordHandler handler) throws IOException {
+        ByteBuffer readBuffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        long validEnd = position;
+        readBuffer.limit(0);
+        while (true) {
+            if (readBuffer.remaining() < Integer.BYTES + 1 && !fill(readBuffer, validEnd, Integer.BYTES + 1)) {
+                return validEnd;
+            }
+            int length = readBuffer.getInt(readBuffer.position());
+            if (length < 0 || length > BUFFER_BYTES - RECORD_OVERHEAD) {
+                return validEnd;
+            }
+            if (readBuffer.remaining() < length + RECORD_OVERHEAD && !fill(readBuffer, validEnd, length + RECORD_OVERHEAD)) {
+                return validEnd;
+            }
+
+            int start = readBuffer.position();
+            byte type = readBuffer.get(start + Integer.BYTES);
+            ByteBuffer payload = readBuffer.slice(start + Integer.BYTES + 1, length);
+            crc.reset();
+            crc.update(readBuffer.slice(start + Integer.BYTES, length + 1));
+            if ((int) crc.getValue() != readBuffer.getInt(start + Integer.BYTES + 1 + length)) {
+                return validEnd;
+            }
+            handler.record(type, payload.asReadOnlyBuffer());
+            readBuffer.position(start + length + RECORD_OVERHEAD);
+            validEnd += length + RECORD_OVERHEAD;
+        }
+    }
+
+    // Reads from the file until the buffer holds at least the needed bytes starting at
+    // fileOffset; false at the end of the file
+    private boolean fill(ByteBuffer readBuffer, long fileOffset, int needed) throws IOException {
+        readBuffer.compact();
+        long readFrom = fileOffset + readBuffer.position();
+        while (readBuffer.position() < needed) {
+            int read = channel.read(readBuffer, readFrom);
+            if (read < 0) {
+                readBuffer.flip();
+                return false;
+            }
+            readFrom += read;
+        }
+        readBuffer.flip();
+        return true;
+    }
+
+    public synchronized void append(byte type, ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        if (length > BUFFER_BYTES - RECORD_OVERHEAD) {
+            throw new IllegalArgumentException("Record of " + length + " bytes does not fit the log buffer");
+        }
+        if (buffer.remaining() < length + RECORD_OVERHEAD) {
+            write();
+        }
+        int start = buffer.position();
+        buffer.putInt(length).put(type).put(payload);
+        crc.reset();
+        crc.update(buffer.slice(start + Integer.BYTES, length + 1));
+        buffer.putInt((int) crc.getValue());
+
+        if (++unsynced >= groupCommitSize) {
+            sync();
+        }
+    }
+
+    // Makes every appended record durable
+    public synchronized void sync() throws IOException {
+        write();
+        channel.force(false);
+        unsynced = 0;
+    }
+
+    public synchronized long generation() {
+        return generation;
+    }
+
+    public synchronized long size() throws IOException {
+        return channel.size() + buffer.position();
+    }
+
+    // Drops every record and starts the given generation
+    public synchronized void reset(long newGeneration) throws IOException {
+        buffer.clear();
+        channel.truncate(0);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putLong(newGeneration).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, HEADER_BYTES - header.remaining());
+        }
+        channel.force(true);
+        channel.position(HEADER_BYTES);
+        generation = newGeneration;
+        unsynced = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,167 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import activity.ActivityCodec.BookingResultView;
+import activity.ActivityCodec.EnergyResultView;
+import activity.ActivityCodec.FraudCheckResultView;
+import activity.ActivityCodec.TransactionView;
+import activity.FlightBookingSystem.BookingResult;
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+import static org.junit.Assert.*;
+
+public class ActivityCodecTest {
+
+    private ActivityCodec codec;
+    private ByteBuffer heap;
+    private ByteBuffer direct;
+
+    @Before
+    public void initialize() {
+        codec = new ActivityCodec(new StringDictionary(), new StringDictionary());
+        heap = ByteBuffer.allocate(1024);
+        direct = ByteBuffer.allocateDirect(1024);
+    }
+
+    @Test
+    public void testTransactionRoundTrip() {
+        Transaction transaction = new Transaction(1234.5, LocalDateTime.of(2024, 10, 1, 12, 0, 30, 123_456_789), "Brazil");
+        for (ByteBuffer buffer : new ByteBuffer[]{heap, direct}) {
+            assertEquals(ActivityCodec.TRANSACTION_BYTES, codec.writeTransaction(buffer, 7, transaction));
+
+            Transaction read = codec.readTransaction(buffer, 7);
+            assertEquals(transaction.amount, read.amount, 0.0);
+            assertEquals(transaction.subMillisNanos, read.subMillisNanos);
+            assertEquals(transaction.timestamp, read.timestamp);
+            assertEquals("Brazil", read.location);
+            assertEquals(0, buffer.position());
+        }
+    }
+
+    @Test
+    public void testTransactionViewReadsInPlace() {
+        int offset = 0;
+        for (int i = 0; i < 10; i++) {
+            offset += codec.writeTransaction(direct, offset, new Transaction(i, 1000L * i, i % 2 == 0 ? "Brazil" : "France"));
+        }
+
+        TransactionView view = codec.transactionView();
+        for (int i = 0; i < 10; i++) {
+            view.wrap(direct, i * ActivityCodec.TRANSACTION_BYTES);
+            assertEquals(1000L * i, view.epochMillis());
+            assertEquals(i, view.amount(), 0.0);
+            assertEquals(i % 2, view.locationId());
+            assertEquals(i % 2 == 0 ? "Brazil" : "France", view.location());
+        }
+    }
+
+    @Test
+    public void testDictionaryExchangeLetsAnotherCodecRead() {
+        StringDictionary locations = new StringDictionary();
+        ActivityCodec writer = new ActivityCodec(locations, new StringDictionary());
+        StringDictionary received = new StringDictionary();
+        ActivityCodec reader = new ActivityCodec(received, new StringDictionary());
+
+        int offset = writer.writeTransaction(heap, 0, new Transaction(1, 1000L, "Brazil"));
+        offset += writer.writeTransaction(heap, offset, new Transaction(2, 2000L, "France"));
+        int length = ActivityCodec.writeDictionary(direct, 0, locations, 0);
+        assertEquals(ActivityCodec.dictionaryBytes(locations, 0), length);
+        assertEquals(length, ActivityCodec.readDictionary(direct, 0, received));
+
+        assertEquals("Brazil", reader.readTransaction(heap, 0).location);
+        assertEquals("France", reader.readTransaction(heap, ActivityCodec.TRANSACTION_BYTES).location);
+
+        // Only the entries added since the last exchange are sent
+        writer.writeTransaction(heap, offset, new Transaction(3, 3000L, "São Tomé"));
+        int sent = locations.size() - 1;
+        ActivityCodec.writeDictionary(direct, 0, locations, sent);
+        ActivityCodec.readDictionary(direct, 0, received);
+        assertEquals("São Tomé", reader.readTransaction(heap, offset).location);
+        assertEquals(3, received.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testDivergedDictionaryIsRejected() {
+        StringDictionary locations = new StringDictionary();
+        locations.idOf("Brazil");
+        StringDictionary received = new StringDictionary();
+        received.idOf("France");
+
+        ActivityCodec.writeDictionary(direct, 0, locations, 0);
+        ActivityCodec.readDictionary(direct, 0, received);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfRangeRiskScoreIsRejected() {
+        codec.writeFraudCheckResult(direct, 0, new FraudCheckResult(true, true, true, FraudCheckResult.RISK_SCORE_MASK + 1));
+    }
+
+    @Test
+    public void testFraudCheckResultRoundTrip() {
+        FraudCheckResult result = new FraudCheckResult(true, false, true, 20);
+        assertEquals(ActivityCodec.FRAUD_CHECK_RESULT_BYTES, codec.writeFraudCheckResult(direct, 3, result));
+
+        FraudCheckResult read = codec.readFraudCheckResult(direct, 3);
+        assertTrue(read.isFraudulent);
+        assertFalse(read.isBlocked);
+        assertTrue(read.verificationRequired);
+        assertEquals(20, read.riskScore);
+
+        FraudCheckResultView view = new FraudCheckResultView().wrap(direct, 3);
+        assertTrue(view.isFraudulent());
+        assertFalse(view.isBlocked());
+        assertTrue(view.verificationRequired());
+        assertEquals(20, view.riskScore());
+    }
+
+    @Test
+    public void testBookingResultRoundTrip() {
+        BookingResult result = new BookingResult(true, 1915.25, 0, true);
+        assertEquals(ActivityCodec.BOOKING_RESULT_BYTES, codec.writeBookingResult(heap, 0, result));
+
+        BookingResult read = codec.readBookingResult(heap, 0);
+        assertTrue(read.confirmation);
+        assertTrue(read.pointsUsed);
+        assertEquals(1915.25, read.totalPrice, 0.0);
+        assertEquals(0, read.refundAmount, 0.0);
+
+        BookingResultView view = new BookingResultView().wrap(heap, 0);
+        assertTrue(view.confirmation());
+        assertTrue(view.pointsUsed());
+        assertEquals(1915.25, view.totalPrice(), 0.0);
+    }
+
+    @Test
+    public void testEnergyResultRoundTrip() {
+        Map<String, Integer> devicePriorities = new HashMap<>();
+        devicePriorities.put("Lights", 2);
+        devicePriorities.put("Security", 1);
+        EnergyManagementResult result = new SmartEnergyManagementSystem().manageEnergy(0.25, 0.20, devicePriorities,
+                LocalDateTime.of(2024, 10, 1, 12, 0), 18.0, new double[]{20.0, 24.0}, 30.0, 10.0, new java.util.ArrayList<>());
+
+        int length = codec.writeEnergyResult(direct, 5, result);
+        assertEquals(ActivityCodec.energyResultBytes(result), length);
+
+        EnergyManagementResult read = codec.readEnergyResult(direct, 5);
+        assertEquals(new HashMap<>(result.deviceStatus), read.deviceStatus);
+        assertTrue(read.energySavingMode);
+        assertTrue(read.temperatureRegulationActive);
+        assertEquals(10.0, read.totalEnergyUsed, 0.0);
+
+        EnergyResultView view = codec.energyResultView().wrap(direct, 5);
+        assertEquals(length, view.length());
+        assertEquals(result.deviceStatus.size(), view.deviceCount());
+        for (int i = 0; i < view.deviceCount(); i++) {
+            assertEquals(result.deviceStatus.get(view.deviceName(i)), view.isOn(i));
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package activity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+import activity.ActivityGateway.EnergyRequest;
+import activity.BookingPipeline.BookingRequest;
+import activity.FlightBookingSystem.BookingResult;
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+import static org.junit.Assert.*;
+
+public class ActivityGatewayTest {
+
+    private LocationBlacklist blacklist;
+    private FlightInventory inventory;
+    private ForkJoinPool pool;
+    private ActivityGateway gateway;
+    private LocalDateTime start;
+    private double[] desiredTemperatureRange;
+
+    @Before
+    public void initialize() {
+        blacklist = new LocationBlacklist(Arrays.asList("HighRiskCountry1", "HighRiskCountry2"));
+        inventory = new FlightInventory();
+        inventory.addFlight(1, 10);
+        pool = new ForkJoinPool(2);
+        start = LocalDateTime.of(2024, 10, 1, 12, 0);
+        desiredTemperatureRange = new double[]{20.0, 24.0};
+    }
+
+    @After
+    public void close() throws InterruptedException {
+        if (gateway != null) {
+            gateway.close();
+        }
+        pool.shutdown();
+    }
+
+    private ActivityGateway gateway(FraudScoringService fraud) {
+        return new ActivityGateway(fraud, new BookingPipeline(inventory, 16, Duration.ofMillis(5)),
+                new EnergyFleet(new SmartEnergyManagementSystem(), pool), 16, Duration.ofMillis(5));
+    }
+
+    @Test(timeout = 5000)
+    public void testCheckForFraudMatchesEngine() {
+        gateway = gateway(FraudScoringService.virtualThreads(4, 64, blacklist));
+        FraudDetectionEngine engine = new FraudDetectionEngine(blacklist);
+
+        List<Transaction> transactions = new ArrayList<>();
+        List<CompletableFuture<FraudCheckResult>> results = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Transaction transaction = new Transaction(1000 * i, start.plusMinutes(i), i % 3 == 0 ? "France" : "Brazil");
+            transactions.add(transaction);
+            results.add(gateway.checkForFraud(1, transaction));
+        }
+
+        for (int i = 0; i < transactions.size(); i++) {
+            FraudCheckResult expected = engine.checkForFraud(1, transactions.get(i));
+            FraudCheckResult actual = results.get(i).join();
+            assertEquals(expected.isFraudulent, actual.isFraudulent);
+            assertEquals(expected.isBlocked, actual.isBlocked);
+            assertEquals(expected.verificationRequired, actual.verificationRequired);
+            assertEquals(expected.riskScore, actual.riskScore);
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testCheckForFraudIsRejectedWhenFull() {
+        List<Runnable> parked = new ArrayList<>();
+        gateway = gateway(new FraudScoringService(parked::add, 1, 1, blacklist));
+
+        CompletableFuture<FraudCheckResult> first = gateway.checkForFraud(1, new Transaction(100, start, "Brazil"));
+        CompletableFuture<FraudCheckResult> second = gateway.checkForFraud(1, new Transaction(100, start, "Brazil"));
+
+        assertFalse(first.isDone());
+        assertTrue(second.isCompletedExceptionally());
+        try {
+            second.join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        // Let the parked partition drain, so close does not wait for it
+        parked.forEach(Runnable::run);
+        assertEquals(0, first.join().riskScore);
+    }
+
+    @Test(timeout = 5000)
+    public void testRequestsAfterCloseAreRejected() throws InterruptedException {
+        ActivityGateway closed = gateway(FraudScoringService.virtualThreads(1, 8, blacklist));
+        closed.close();
+
+        List<CompletableFuture<?>> results = Arrays.asList(
+                closed.checkForFraud(1, new Transaction(100, start, "Brazil")),
+                closed.bookFlight(new BookingRequest(1, 2, start, 1000.0, 120, false, start.plusDays(10), 0)),
+                closed.manageEnergy(new EnergyRequest(DeviceRegistry.of(new HashMap<>()), 0.25, 0.20, start, 18.0,
+                        desiredTemperatureRange, 30.0, 10.0)));
+
+        for (CompletableFuture<?> result : results) {
+            try {
+                result.join();
+                fail();
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+        }
+        assertEquals(10, inventory.availableSeats(1));
+    }
+
+    @Test(timeout = 5000)
+    public void testBookFlight() {
+        gateway = gateway(FraudScoringService.virtualThreads(1, 8, blacklist));
+        LocalDateTime departureTime = start.plusDays(10);
+
+        BookingResult result = gateway.bookFlight(new BookingRequest(1, 2, start, 1000.0, 120, false, departureTime, 0)).join();
+        BookingResult expected = new FlightBookingSystem().bookFlight(2, start, 10, 1000.0, 120, false, departureTime, 0);
+
+        assertTrue(result.confirmation);
+        assertEquals(expected.totalPrice, result.totalPrice, 0.0);
+        assertEquals(8, inventory.availableSeats(1));
+    }
+
+    @Test(timeout = 5000)
+    public void testManageEnergyMatchesSystemAcrossPriceDecisions() {
+        gateway = gateway(FraudScoringService.virtualThreads(1, 8, blacklist));
+        SmartEnergyManagementSystem energySystem = new SmartEnergyManagementSystem();
+        Map<String, Integer> devicePriorities = new HashMap<>();
+        devicePriorities.put("Lights", 2);
+        devicePriorities.put("Security", 1);
+        DeviceRegistry devices = DeviceRegistry.of(devicePriorities);
+
+        List<EnergyRequest> requests = new ArrayList<>();
+        List<CompletableFuture<EnergyManagementResult>> results = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            EnergyRequest request = new EnergyRequest(devices, i % 2 == 0 ? 0.25 : 0.15, 0.20, start.plusHours(i),
+                    16.0 + i, desiredTemperatureRange, 30.0, 25.0 + i);
+            requests.add(request);
+            results.add(gateway.manageEnergy(request));
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            EnergyRequest request = requests.get(i);
+            EnergyManagementResult expected = energySystem.manageEnergy(request.currentPrice, request.priceThreshold,
+                    devicePriorities, request.currentTime, request.currentTemperature, desiredTemperatureRange,
+                    request.energyUsageLimit, request.totalEnergyUsedToday, new ArrayList<>());
+            EnergyManagementResult actual = results.get(i).join();
+            assertEquals(new HashMap<>(expected.deviceStatus), new HashMap<>(actual.deviceStatus));
+            assertEquals(expected.energySavingMode, actual.energySavingMode);
+            assertEquals(expected.temperatureRegulationActive, actual.temperatureRegulationActive);
+            assertEquals(expected.totalEnergyUsed, actual.totalEnergyUsed, 0.0);
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testManageEnergyTurnsOnDueSchedules() {
+        gateway = gateway(FraudScoringService.virtualThreads(1, 8, blacklist));
+        SmartEnergyManagementSystem energySystem = new SmartEnergyManagementSystem();
+
+        List<Map<String, Integer>> priorities = new ArrayList<>();
+        List<EnergyRequest> requests = new ArrayList<>();
+        List<CompletableFuture<EnergyManagementResult>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Map<String, Integer> devicePriorities = new HashMap<>();
+            devicePriorities.put("Lights", 2);
+            devicePriorities.put("Heating", 1);
+            LocalDateTime currentTime = start.plusHours(i);
+            List<DeviceSchedule> schedules = Arrays.asList(
+                    new DeviceSchedule(i % 2 == 0 ? "Oven" : "Heating", currentTime),
+                    new DeviceSchedule("Dishwasher", currentTime.plusMinutes(1)));
+            EnergyRequest request = new EnergyRequest(DeviceRegistry.of(devicePriorities), 0.25, 0.20, currentTime,
+                    16.0 + i, desiredTemperatureRange, 30.0, 25.0 + i, schedules);
+            priorities.add(devicePriorities);
+            requests.add(request);
+            results.add(gateway.manageEnergy(request));
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            EnergyRequest request = requests.get(i);
+            EnergyManagementResult expected = energySystem.manageEnergy(request.currentPrice, request.priceThreshold,
+                    priorities.get(i), request.currentTime, request.currentTemperature, desiredTemperatureRange,
+                    request.energyUsageLimit, request.totalEnergyUsedToday, request.scheduledDevices);
+            EnergyManagementResult actual = results.get(i).join();
+            assertEquals(new HashMap<>(expected.deviceStatus), new HashMap<>(actual.deviceStatus));
+            assertEquals(expected.totalEnergyUsed, actual.totalEnergyUsed, 0.0);
+        }
+        assertTrue(results.get(0).join().deviceStatus.get("Oven"));
+        assertFalse(results.get(0).join().deviceStatus.containsKey("Dishwasher"));
+    }
+
+    @Test(timeout = 5000)
+    public void testInterruptedCloseStillClosesEverySystem() {
+        ActivityGateway closing = gateway(FraudScoringService.virtualThreads(1, 8, blacklist));
+
+        Thread.currentThread().interrupt();
+        try {
+            closing.close();
+            fail();
+        } catch (InterruptedException e) {
+            // The interrupt is passed on after the other systems are closed
+            assertTrue(Thread.interrupted());
+        }
+
+        List<CompletableFuture<?>> results = Arrays.asList(
+                closing.checkForFraud(1, new Transaction(100, start, "Brazil")),
+                closing.bookFlight(new BookingRequest(1, 2, start, 1000.0, 120, false, start.plusDays(10), 0)));
+        for (CompletableFuture<?> result : results) {
+            try {
+                result.join();
+                fail();
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+        }
+        assertEquals(10, inventory.availableSeats(1));
+    }
+}
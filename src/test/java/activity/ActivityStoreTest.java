@@ -0,0 +1,247 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.Transaction;
+
+import static org.junit.Assert.*;
+
+public class ActivityStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private LocationBlacklist blacklist;
+    private LocalDateTime start;
+
+    @Before
+    public void initialize() {
+        directory = folder.getRoot().toPath().resolve("state");
+        blacklist = new LocationBlacklist(Arrays.asList("HighRiskCountry1"));
+        start = LocalDateTime.of(2024, 10, 1, 12, 0);
+    }
+
+    private ActivityStore open() throws IOException {
+        return ActivityStore.open(directory, blacklist, 16);
+    }
+
+    private void fillState(ActivityStore store) throws IOException {
+        store.addFlight(1, 100, 4);
+        store.addFlight(2, 10, 1);
+        assertTrue(store.reserve(1, 30));
+        assertTrue(store.reserve(2, 10));
+        assertFalse(store.reserve(2, 1));
+        store.release(1, 5);
+
+        for (int i = 0; i < 5; i++) {
+            store.checkForFraud(7, new Transaction(100, start.plusMinutes(i), "Brazil"));
+        }
+
+        store.registerDevice(3, "Lights", 2);
+        store.registerDevice(3, "Security", 1);
+    }
+
+    private void assertState(ActivityStore store) throws IOException {
+        assertEquals(75, store.availableSeats(1));
+        assertEquals(0, store.availableSeats(2));
+        assertEquals(5, store.recentTransactionCount(7));
+
+        DeviceRegistry devices = store.devices(3);
+        assertEquals(2, devices.priority(devices.lookup("Lights")));
+        assertTrue(devices.hasPriority(DeviceRegistry.SECURITY));
+        assertNull(store.devices(4));
+
+        // The restored history drives the location-change rule
+        FraudCheckResult result = store.checkForFraud(7, new Transaction(100, start.plusMinutes(10), "France"));
+        assertTrue(result.isFraudulent);
+    }
+
+    @Test
+    public void testStateSurvivesRestartFromLog() throws IOException {
+        try (ActivityStore store = open()) {
+            fillState(store);
+        }
+
+        try (ActivityStore store = open()) {
+            assertState(store);
+        }
+    }
+
+    @Test
+    public void testStateSurvivesRestartFromSnapshot() throws IOException {
+        try (ActivityStore store = open()) {
+            fillState(store);
+            store.snapshot();
+            assertTrue(store.reserve(1, 1));
+        }
+
+        try (ActivityStore store = open()) {
+            store.release(1, 1);
+            assertState(store);
+        }
+    }
+
+    @Test
+    public void testLogOlderThanSnapshotIsDiscarded() throws IOException {
+        try (ActivityStore store = open()) {
+            fillState(store);
+        }
+        Path log = directory.resolve(ActivityStore.LOG_FILE);
+        Path staleLog = directory.resolve("stale.wal");
+        Files.copy(log, staleLog);
+        try (ActivityStore store = open()) {
+            store.snapshot();
+        }
+        // As if the process died between moving the snapshot and resetting the log
+        Files.move(staleLog, log, StandardCopyOption.REPLACE_EXISTING);
+
+        try (ActivityStore store = open()) {
+            assertState(store);
+        }
+    }
+
+    @Test
+    public void testLogIsResetOnlyOnceSnapshotMoveIsDurable() throws IOException {
+        Path logFile = directory.resolve(ActivityStore.LOG_FILE);
+        Path snapshotFile = directory.resolve(ActivityStore.SNAPSHOT_FILE);
+        long[] logGenerationAtSync = {-1};
+        try (ActivityStore store = ActivityStore.open(directory, blacklist, 16, synced -> {
+            assertEquals(directory, synced);
+            assertTrue(Files.exists(snapshotFile));
+            logGenerationAtSync[0] = ActivityStore.generationOf(logFile);
+        })) {
+            fillState(store);
+            store.sync();
+            store.snapshot();
+        }
+
+        assertEquals(0, logGenerationAtSync[0]);
+        assertEquals(1, ActivityStore.generationOf(logFile));
+    }
+
+    @Test
+    public void testFailedDirectorySyncKeepsLog() throws IOException {
+        try (ActivityStore store = ActivityStore.open(directory, blacklist, 16, synced -> {
+            throw new IOException("Disk is gone");
+        })) {
+            fillState(store);
+            store.sync();
+            try {
+                store.snapshot();
+                fail();
+            } catch (IOException e) {
+                assertEquals("Disk is gone", e.getMessage());
+            }
+        }
+
+        assertEquals(0, ActivityStore.generationOf(directory.resolve(ActivityStore.LOG_FILE)));
+        try (ActivityStore store = open()) {
+            assertState(store);
+        }
+    }
+
+    @Test
+    public void testPointsSurviveRestart() throws IOException {
+        try (ActivityStore store = open()) {
+            store.creditPoints(9, 1000);
+            assertTrue(store.commitPoints(store.reservePoints(9, 300)));
+            assertTrue(store.releasePoints(store.reservePoints(9, 200)));
+            assertNull(store.reservePoints(10, 0));
+        }
+
+        try (ActivityStore store = open()) {
+            assertEquals(700, store.availablePoints(9));
+            assertEquals(0, store.availablePoints(10));
+        }
+    }
+
+    @Test
+    public void testPendingReservationIsReleasedByRestart() throws IOException {
+        try (ActivityStore store = open()) {
+            store.creditPoints(9, 1000);
+            RewardPointsLedger.Reservation committed = store.reservePoints(9, 300);
+            store.reservePoints(9, 400);
+            store.snapshot();
+            assertTrue(store.commitPoints(committed));
+        }
+
+        try (ActivityStore store = open()) {
+            assertEquals(700, store.availablePoints(9));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptSnapshotFailsOpen() throws IOException {
+        try (ActivityStore store = open()) {
+            fillState(store);
+            store.snapshot();
+        }
+        Path snapshot = directory.resolve(ActivityStore.SNAPSHOT_FILE);
+        byte[] bytes = Files.readAllBytes(snapshot);
+        bytes[bytes.length / 2] ^= 0x55;
+        Files.write(snapshot, bytes);
+
+        open();
+    }
+
+    @Test
+    public void testSnapshotKeepsCapacityForReleases() throws IOException {
+        try (ActivityStore store = open()) {
+            store.addFlight(1, 10, 2);
+            assertTrue(store.reserve(1, 4));
+            store.snapshot();
+        }
+
+        try (ActivityStore store = open()) {
+            store.release(1, 4);
+            assertEquals(10, store.availableSeats(1));
+        }
+    }
+
+    @Test
+    public void testSubMillisecondTransactionsSurviveRestart() throws IOException {
+        LocalDateTime previousTime = start.plusNanos(500_000);
+        Transaction current = new Transaction(100, previousTime.plusMinutes(30).minusNanos(1), "France");
+        try (ActivityStore store = open()) {
+            store.checkForFraud(7, new Transaction(100, previousTime, "Brazil"));
+        }
+
+        try (ActivityStore store = open()) {
+            assertEquals(20, store.checkForFraud(7, current).riskScore);
+        }
+        try (ActivityStore store = open()) {
+            store.snapshot();
+        }
+        try (ActivityStore store = open()) {
+            assertEquals(2, store.recentTransactionCount(7));
+        }
+    }
+
+    @Test
+    public void testRepeatedSnapshots() throws IOException {
+        try (ActivityStore store = open()) {
+            fillState(store);
+            store.snapshot();
+            store.snapshot();
+        }
+        try (ActivityStore store = open()) {
+            store.snapshot();
+        }
+
+        try (ActivityStore store = open()) {
+            assertState(store);
+        }
+    }
+}
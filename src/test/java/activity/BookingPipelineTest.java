@@ -0,0 +1,154 @@
+package activity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import activity.BookingPipeline.BookingRequest;
+import activity.BookingPipeline.PendingBooking;
+import activity.FlightBookingSystem.BookingResult;
+
+import static org.junit.Assert.*;
+
+public class BookingPipelineTest {
+
+    private FlightInventory inventory;
+    private BookingPipeline pipeline;
+    private FlightBookingSystem flightBookingSystem;
+    private LocalDateTime bookingTime;
+    private LocalDateTime departureTime;
+
+    @Before
+    public void initialize() {
+        inventory = new FlightInventory();
+        inventory.addFlight(1, 10);
+        inventory.addFlight(2, 3);
+        pipeline = new BookingPipeline(inventory, 32, Duration.ofMillis(5));
+        flightBookingSystem = new FlightBookingSystem();
+        bookingTime = LocalDateTime.of(2024, 10, 1, 12, 0);
+        departureTime = bookingTime.plusDays(10);
+    }
+
+    @After
+    public void close() throws InterruptedException {
+        pipeline.close();
+    }
+
+    private BookingRequest booking(long flightId, int passengers) {
+        return new BookingRequest(flightId, passengers, bookingTime, 1000.0, 120, false, departureTime, 0);
+    }
+
+    private PendingBooking pending(BookingRequest request) {
+        return new PendingBooking(request, 0);
+    }
+
+    @Test(timeout = 5000)
+    public void testSubmitCompletesWithBookFlightResult() throws InterruptedException {
+        BookingResult result = pipeline.submit(booking(1, 2)).join();
+        BookingResult expected = flightBookingSystem.bookFlight(2, bookingTime, 10, 1000.0, 120, false, departureTime, 0);
+
+        assertTrue(result.confirmation);
+        assertEquals(expected.totalPrice, result.totalPrice, 0.0);
+        assertEquals(8, inventory.availableSeats(1));
+    }
+
+    @Test
+    public void testGroupThatDoesNotFitIsSeatedInArrivalOrder() {
+        List<PendingBooking> batch = Arrays.asList(pending(booking(2, 2)), pending(booking(2, 2)), pending(booking(2, 1)),
+                pending(booking(1, 4)));
+
+        pipeline.process(batch);
+
+        assertTrue(batch.get(0).result.join().confirmation);
+        assertFalse(batch.get(1).result.join().confirmation);
+        assertTrue(batch.get(2).result.join().confirmation);
+        assertTrue(batch.get(3).result.join().confirmation);
+        assertEquals(0, inventory.availableSeats(2));
+        assertEquals(6, inventory.availableSeats(1));
+    }
+
+    @Test
+    public void testCancellationReleasesSeats() {
+        pipeline.process(Arrays.asList(pending(booking(2, 3))));
+        PendingBooking cancellation = pending(new BookingRequest(2, 3, bookingTime, 1000.0, 120, true, departureTime, 0));
+
+        pipeline.process(Arrays.asList(cancellation));
+
+        BookingResult result = cancellation.result.join();
+        assertFalse(result.confirmation);
+        assertEquals(2880.0, result.refundAmount, 0.005);
+        assertEquals(3, inventory.availableSeats(2));
+    }
+
+    @Test
+    public void testFailingRequestOnlyFailsItselfAndKeepsNoSeats() {
+        PendingBooking first = pending(booking(1, 2));
+        PendingBooking broken = pending(new BookingRequest(1, 3, bookingTime, 1000.0, 120, false, null, 0));
+        PendingBooking last = pending(booking(1, 4));
+
+        pipeline.process(Arrays.asList(first, broken, last));
+
+        assertTrue(first.result.join().confirmation);
+        assertTrue(last.result.join().confirmation);
+        try {
+            broken.result.join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof NullPointerException);
+        }
+        assertEquals(4, inventory.availableSeats(1));
+    }
+
+    @Test
+    public void testFailingRequestReleasesSeatsReservedOnItsOwn() {
+        PendingBooking broken = pending(new BookingRequest(2, 2, bookingTime, 1000.0, 120, false, null, 0));
+        PendingBooking tooMany = pending(booking(2, 2));
+
+        pipeline.process(Arrays.asList(broken, tooMany));
+
+        assertTrue(broken.result.isCompletedExceptionally());
+        assertTrue(tooMany.result.join().confirmation);
+        assertEquals(1, inventory.availableSeats(2));
+    }
+
+    @Test
+    public void testUnknownFlightFailsOnlyItsGroup() {
+        PendingBooking unknown = pending(booking(42, 1));
+        PendingBooking known = pending(booking(1, 1));
+
+        pipeline.process(Arrays.asList(unknown, known));
+
+        assertTrue(known.result.join().confirmation);
+        try {
+            unknown.result.join();
+            fail();
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testNoOverbookingAcrossBatches() throws InterruptedException {
+        List<CompletableFuture<BookingResult>> results = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            results.add(pipeline.submit(booking(1, 1 + i % 3)));
+        }
+
+        int seated = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i).join().confirmation) {
+                seated += 1 + i % 3;
+            }
+        }
+        assertEquals(10, seated + inventory.availableSeats(1));
+        assertEquals(0, inventory.availableSeats(1));
+    }
+}
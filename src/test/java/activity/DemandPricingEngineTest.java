@@ -0,0 +1,114 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import activity.FlightBookingSystem.BookingResult;
+
+import static org.junit.Assert.*;
+
+public class DemandPricingEngineTest {
+
+    private DemandPricingEngine engine;
+    private FlightBookingSystem flightBookingSystem;
+    private LocalDateTime start;
+    private LocalDateTime departureTime;
+
+    @Before
+    public void initialize() {
+        engine = new DemandPricingEngine(Duration.ofHours(24), 24);
+        flightBookingSystem = new FlightBookingSystem();
+        start = LocalDateTime.of(2024, 10, 1, 12, 0);
+        departureTime = start.plusDays(10);
+    }
+
+    @Test
+    public void testUnknownFlightHasNoSales() {
+        assertEquals(0, engine.previousSales(1, start));
+        assertEquals(0, engine.totalSales(1));
+        assertEquals(0.0, engine.priceFactor(1, start), 0.0);
+    }
+
+    @Test
+    public void testBookingsAndCancellationsAreNetted() {
+        engine.recordBooking(1, 5, start);
+        engine.recordBooking(1, 3, start.plusMinutes(10));
+        engine.recordCancellation(1, 2, start.plusMinutes(20));
+
+        assertEquals(6, engine.previousSales(1, start.plusMinutes(30)));
+        assertEquals(0, engine.previousSales(2, start.plusMinutes(30)));
+        assertEquals(FlightBookingSystem.priceFactor(6), engine.priceFactor(1, start.plusMinutes(30)), 0.0);
+    }
+
+    @Test
+    public void testSalesLeaveTheWindow() {
+        engine.recordBooking(1, 5, start);
+        engine.recordBooking(1, 3, start.plusHours(12));
+
+        assertEquals(8, engine.previousSales(1, start.plusHours(23)));
+        assertEquals(3, engine.previousSales(1, start.plusHours(24)));
+        assertEquals(0, engine.previousSales(1, start.plusHours(36)));
+        assertEquals(8, engine.totalSales(1));
+    }
+
+    @Test
+    public void testWindowSurvivesLongGaps() {
+        engine.recordBooking(1, 5, start);
+        engine.recordBooking(1, 2, start.plusDays(30));
+
+        assertEquals(2, engine.previousSales(1, start.plusDays(30).plusHours(1)));
+    }
+
+    @Test
+    public void testNetSalesNeverGoNegative() {
+        engine.recordBooking(1, 5, start);
+        engine.recordCancellation(1, 5, start.plusDays(2));
+
+        assertEquals(0, engine.previousSales(1, start.plusDays(2)));
+        assertEquals(0, engine.totalSales(1));
+    }
+
+    @Test
+    public void testBookFlightUsesAndRecordsDemand() {
+        for (int i = 0; i < 100; i++) {
+            engine.recordBooking(1, 1, start.minusMinutes(i));
+        }
+
+        BookingResult result = engine.bookFlight(flightBookingSystem, 1, 4, start, 10, 1000.0, false, departureTime, 0);
+        BookingResult expected = flightBookingSystem.bookFlight(4, start, 10, 1000.0, 100, false, departureTime, 0);
+        assertEquals(expected.totalPrice, result.totalPrice, 0.0);
+        assertEquals(104, engine.previousSales(1, start));
+
+        engine.bookFlight(flightBookingSystem, 1, 20, start, 10, 1000.0, false, departureTime, 0);
+        assertEquals(104, engine.previousSales(1, start));
+
+        engine.bookFlight(flightBookingSystem, 1, 4, start, 10, 1000.0, true, departureTime, 0);
+        assertEquals(100, engine.previousSales(1, start));
+    }
+
+    @Test(timeout = 10000)
+    public void testConcurrentBookingsAreAllCounted() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    engine.recordBooking(1, 1, start.plusSeconds(offset * 10_000L + i));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(80_000, engine.totalSales(1));
+        assertEquals(80_000, engine.previousSales(1, start.plusHours(23)));
+    }
+}
@@ -0,0 +1,158 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+import static org.junit.Assert.*;
+
+public class DeviceRegistryTest {
+
+    private SmartEnergyManagementSystem energySystem;
+    private Map<String, Integer> devicePriorities;
+    private double[] desiredTemperatureRange;
+
+    @Before
+    public void initialize() {
+        energySystem = new SmartEnergyManagementSystem();
+        devicePriorities = new HashMap<>();
+        devicePriorities.put("Heating", 1);
+        devicePriorities.put("Cooling", 1);
+        devicePriorities.put("Lights", 2);
+        devicePriorities.put("Appliances", 3);
+        devicePriorities.put("Security", 1);
+        devicePriorities.put("Refrigerator", 1);
+        desiredTemperatureRange = new double[]{20.0, 24.0};
+    }
+
+    @Test
+    public void testKnownDevicesHaveFixedIds() {
+        DeviceRegistry devices = DeviceRegistry.of(devicePriorities);
+
+        assertEquals(DeviceRegistry.HEATING, devices.lookup("Heating"));
+        assertEquals(DeviceRegistry.COOLING, devices.lookup("Cooling"));
+        assertEquals(DeviceRegistry.SECURITY, devices.lookup("Security"));
+        assertEquals(DeviceRegistry.REFRIGERATOR, devices.lookup("Refrigerator"));
+        assertEquals(-1, devices.lookup("Oven"));
+        assertEquals(6, devices.size());
+    }
+
+    @Test
+    public void testPrioritiesAreStoredPerId() {
+        DeviceRegistry devices = new DeviceRegistry();
+        int lights = devices.register("Lights", 2);
+        int oven = devices.idOf("Oven");
+
+        assertEquals(2, devices.priority(lights));
+        assertTrue(devices.hasPriority(lights));
+        assertFalse(devices.hasPriority(oven));
+        assertFalse(devices.hasPriority(DeviceRegistry.HEATING));
+        assertEquals("Oven", devices.nameOf(oven));
+    }
+
+    @Test
+    public void testRegistryGrowsPastOneWord() {
+        DeviceRegistry devices = new DeviceRegistry();
+        for (int i = 0; i < 200; i++) {
+            devices.register("Device" + i, 1 + i % 3);
+        }
+
+        EnergyManagementResult result = energySystem.manageEnergy(0.25, 0.20, devices, LocalDateTime.of(2024, 10, 1, 12, 0),
+                22.0, desiredTemperatureRange, 30.0, 10.0, new DeviceScheduler(LocalDateTime.of(2024, 10, 1, 12, 0)));
+
+        assertEquals(202, result.deviceStatus.size());
+        assertTrue(result.deviceStatus.get("Device0"));
+        assertFalse(result.deviceStatus.get("Device199"));
+        assertFalse(result.deviceStatus.get("Heating"));
+    }
+
+    @Test
+    public void testViewReadsAndWritesByName() {
+        DeviceRegistry devices = DeviceRegistry.of(devicePriorities);
+        DeviceStatusView view = new DeviceStatusView(devices, new long[1], new long[1]);
+
+        assertNull(view.put("Lights", true));
+        assertTrue(view.put("Lights", false));
+        view.put("Oven", true);
+
+        assertEquals(2, view.size());
+        assertFalse(view.get("Lights"));
+        assertTrue(view.get("Oven"));
+        assertNull(view.get("Heating"));
+        assertNull(view.get(42));
+        assertTrue(view.containsValue(true));
+        assertFalse(view.remove("Lights"));
+        assertFalse(view.containsKey("Lights"));
+
+        Map<String, Boolean> expected = new HashMap<>();
+        expected.put("Oven", true);
+        assertEquals(expected, view);
+        assertEquals(expected.hashCode(), view.hashCode());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testViewRejectsNullStatus() {
+        DeviceStatusView view = new DeviceStatusView(DeviceRegistry.of(devicePriorities), new long[1], new long[1]);
+
+        view.put("Lights", null);
+    }
+
+    @Test
+    public void testEntryIteratorRemove() {
+        DeviceRegistry devices = DeviceRegistry.of(devicePriorities);
+        DeviceStatusView view = new DeviceStatusView(devices, new long[1], new long[1]);
+        view.put("Lights", true);
+        view.put("Security", false);
+
+        Iterator<Map.Entry<String, Boolean>> iterator = view.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+
+        assertEquals(1, view.size());
+        assertTrue(view.containsKey("Lights"));
+    }
+
+    @Test
+    public void testMatchesMapBasedManageEnergy() {
+        Random random = new Random(42);
+        LocalDateTime time = LocalDateTime.of(2024, 10, 1, 0, 0);
+        for (int i = 0; i < 500; i++) {
+            Map<String, Integer> priorities = new HashMap<>();
+            for (String device : new String[]{"Heating", "Cooling", "Security", "Refrigerator", "Lights", "Appliances", "TV"}) {
+                if (random.nextInt(4) > 0) {
+                    priorities.put(device, 1 + random.nextInt(3));
+                }
+            }
+            double price = random.nextDouble();
+            double temperature = 15 + random.nextInt(15);
+            double used = random.nextInt(40) + random.nextDouble();
+            LocalDateTime currentTime = time.plusMinutes(37L * i);
+            List<DeviceSchedule> schedules = new ArrayList<>();
+            DeviceScheduler scheduler = new DeviceScheduler(currentTime.minusMinutes(1));
+            if (random.nextBoolean()) {
+                schedules.add(new DeviceSchedule("Oven", currentTime));
+                scheduler.schedule(new DeviceSchedule("Oven", currentTime));
+            }
+
+            EnergyManagementResult expected = energySystem.manageEnergy(price, 0.5, priorities, currentTime, temperature,
+                    desiredTemperatureRange, 30.0, used, schedules);
+            EnergyManagementResult actual = energySystem.manageEnergy(price, 0.5, DeviceRegistry.of(priorities), currentTime,
+                    temperature, desiredTemperatureRange, 30.0, used, scheduler);
+
+            assertEquals(new HashMap<>(expected.deviceStatus), actual.deviceStatus);
+            assertEquals(expected.energySavingMode, actual.energySavingMode);
+            assertEquals(expected.temperatureRegulationActive, actual.temperatureRegulationActive);
+            assertEquals(expected.totalEnergyUsed, actual.totalEnergyUsed, 0.0);
+        }
+    }
+}
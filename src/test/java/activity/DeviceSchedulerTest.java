@@ -0,0 +1,156 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+import static org.junit.Assert.*;
+
+public class DeviceSchedulerTest {
+
+    private LocalDateTime start;
+    private DeviceScheduler scheduler;
+
+    @Before
+    public void initialize() {
+        start = LocalDateTime.of(2024, 10, 1, 0, 0);
+        scheduler = new DeviceScheduler(start);
+    }
+
+    @Test
+    public void testFiresOnlyDueSchedules() {
+        DeviceSchedule oven = new DeviceSchedule("Oven", start.plusMinutes(5));
+        DeviceSchedule tv = new DeviceSchedule("TV", start.plusMinutes(6));
+        scheduler.schedule(oven);
+        scheduler.schedule(tv);
+
+        assertTrue(scheduler.advanceTo(start.plusMinutes(4)).isEmpty());
+        assertEquals(List.of(oven), scheduler.advanceTo(start.plusMinutes(5)));
+        assertEquals(1, scheduler.size());
+    }
+
+    @Test
+    public void testCatchesUpOnSkippedTicks() {
+        DeviceSchedule oven = new DeviceSchedule("Oven", start.plusMinutes(5));
+        DeviceSchedule tv = new DeviceSchedule("TV", start.plusDays(3));
+        scheduler.schedule(oven);
+        scheduler.schedule(tv);
+
+        List<DeviceSchedule> fired = scheduler.advanceTo(start.plusDays(4));
+
+        assertEquals(2, fired.size());
+        assertTrue(fired.contains(oven));
+        assertTrue(fired.contains(tv));
+        assertEquals(0, scheduler.size());
+    }
+
+    @Test
+    public void testScheduleBetweenTicksFiresAtItsTime() {
+        DeviceSchedule oven = new DeviceSchedule("Oven", start.plusMinutes(5).plusSeconds(30));
+        DeviceSchedule tv = new DeviceSchedule("TV", start.plusMinutes(5).plusSeconds(50));
+        scheduler.schedule(oven);
+        scheduler.schedule(tv);
+
+        assertTrue(scheduler.advanceTo(start.plusMinutes(5).plusSeconds(29)).isEmpty());
+        assertEquals(List.of(oven), scheduler.advanceTo(start.plusMinutes(5).plusSeconds(30)));
+        assertTrue(scheduler.advanceTo(start.plusMinutes(5).plusSeconds(50).minusNanos(1)).isEmpty());
+        assertEquals(List.of(tv), scheduler.advanceTo(start.plusMinutes(6)));
+    }
+
+    @Test
+    public void testUnalignedScheduleFiresAtExactTimeOnFirstAdvance() {
+        DeviceSchedule oven = new DeviceSchedule("Oven", start.plusHours(10).plusSeconds(30));
+        scheduler.schedule(oven);
+
+        assertEquals(List.of(oven), scheduler.advanceTo(start.plusHours(10).plusSeconds(30)));
+    }
+
+    @Test
+    public void testScheduleInCurrentTickWaitsForItsTime() {
+        scheduler.advanceTo(start.plusMinutes(5));
+        DeviceSchedule oven = new DeviceSchedule("Oven", start.plusMinutes(5).plusSeconds(10));
+        scheduler.schedule(oven);
+
+        assertTrue(scheduler.advanceTo(start.plusMinutes(5).plusSeconds(5)).isEmpty());
+        assertEquals(List.of(oven), scheduler.advanceTo(start.plusMinutes(5).plusSeconds(10)));
+    }
+
+    // A millisecond tick puts half a billion empty rounds between the two schedules
+    @Test(timeout = 1000)
+    public void testLongIdleGapsJumpBetweenOccupiedSlots() {
+        DeviceScheduler scheduler = new DeviceScheduler(Duration.ofMillis(1), start);
+        DeviceSchedule first = new DeviceSchedule("Oven", start.plusDays(30));
+        DeviceSchedule second = new DeviceSchedule("TV", start.plusDays(400).plusNanos(500_000));
+        scheduler.schedule(first);
+        scheduler.schedule(second);
+
+        assertEquals(List.of(first), scheduler.advanceTo(start.plusDays(399)));
+        assertTrue(scheduler.advanceTo(start.plusDays(400)).isEmpty());
+        assertEquals(List.of(second), scheduler.advanceTo(start.plusDays(400).plusNanos(500_000)));
+    }
+
+    @Test
+    public void testPastScheduleFiresOnNextAdvance() {
+        scheduler.advanceTo(start.plusHours(1));
+        DeviceSchedule oven = new DeviceSchedule("Oven", start);
+        scheduler.schedule(oven);
+
+        assertEquals(List.of(oven), scheduler.advanceTo(start.plusHours(1)));
+    }
+
+    @Test
+    public void testMatchesScanOverManySchedules() {
+        Random random = new Random(17);
+        List<DeviceSchedule> schedules = new ArrayList<>();
+        for (int i = 0; i < 200_000; i++) {
+            DeviceSchedule schedule = new DeviceSchedule("Device" + i, start.plusMinutes(random.nextInt(5 * 366 * 24 * 60))
+                    .plusSeconds(random.nextInt(3) == 0 ? random.nextInt(60) : 0));
+            schedules.add(schedule);
+            scheduler.schedule(schedule);
+        }
+
+        Set<DeviceSchedule> fired = new HashSet<>();
+        LocalDateTime time = start;
+        while (scheduler.size() > 0) {
+            time = time.plusMinutes(random.nextInt(3) == 0 ? random.nextInt(100_000) : random.nextInt(60))
+                    .plusSeconds(random.nextInt(60));
+            for (DeviceSchedule schedule : scheduler.advanceTo(time)) {
+                assertFalse(schedule.scheduledTime.isAfter(time));
+                assertTrue(fired.add(schedule));
+            }
+            for (int i = 0; i < 20; i++) {
+                DeviceSchedule schedule = schedules.get(random.nextInt(schedules.size()));
+                assertEquals(!schedule.scheduledTime.isAfter(time), fired.contains(schedule));
+            }
+        }
+        assertEquals(schedules.size(), fired.size());
+    }
+
+    @Test
+    public void testManageEnergyWithScheduler() {
+        SmartEnergyManagementSystem energySystem = new SmartEnergyManagementSystem();
+        Map<String, Integer> devicePriorities = new HashMap<>();
+        devicePriorities.put("Lights", 2);
+        scheduler.schedule(new DeviceSchedule("Oven", start.plusHours(12)));
+        scheduler.schedule(new DeviceSchedule("TV", start.plusHours(13)));
+
+        EnergyManagementResult result = energySystem.manageEnergy(0.10, 0.20, devicePriorities, start.plusHours(12).plusMinutes(30),
+                22.0, new double[]{20.0, 24.0}, 30.0, 10.0, scheduler);
+
+        assertTrue(result.deviceStatus.get("Oven"));
+        assertNull(result.deviceStatus.get("TV"));
+        assertTrue(result.deviceStatus.get("Lights"));
+    }
+}
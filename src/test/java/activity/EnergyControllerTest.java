@@ -0,0 +1,160 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+import static org.junit.Assert.*;
+
+public class EnergyControllerTest {
+
+    private SmartEnergyManagementSystem energySystem;
+    private Map<String, Integer> devicePriorities;
+    private List<DeviceSchedule> scheduledDevices;
+    private double[] desiredTemperatureRange;
+    private LocalDateTime start;
+
+    @Before
+    public void initialize() {
+        energySystem = new SmartEnergyManagementSystem();
+        devicePriorities = new HashMap<>();
+        devicePriorities.put("Heating", 1);
+        devicePriorities.put("Cooling", 1);
+        devicePriorities.put("Lights", 2);
+        devicePriorities.put("Appliances", 3);
+        devicePriorities.put("Security", 1);
+        devicePriorities.put("Refrigerator", 1);
+        scheduledDevices = new ArrayList<>();
+        desiredTemperatureRange = new double[]{20.0, 24.0};
+        start = LocalDateTime.of(2024, 10, 1, 21, 0);
+    }
+
+    @Test
+    public void testPriceChangeOnlyReportsLowPriorityDevices() {
+        EnergyController controller = new EnergyController(0.10, 0.20, devicePriorities, start, 22.0,
+                desiredTemperatureRange, 30.0, 10.0, scheduledDevices);
+
+        Map<String, Boolean> changes = controller.onPriceChange(0.25, 0.20);
+
+        assertEquals(2, changes.size());
+        assertFalse(changes.get("Lights"));
+        assertFalse(changes.get("Appliances"));
+        assertTrue(controller.result().energySavingMode);
+    }
+
+    @Test
+    public void testUnchangedEventReportsNothing() {
+        EnergyController controller = new EnergyController(0.10, 0.20, devicePriorities, start, 22.0,
+                desiredTemperatureRange, 30.0, 10.0, scheduledDevices);
+
+        assertTrue(controller.onTemperatureReading(23.0).isEmpty());
+        assertTrue(controller.onPriceChange(0.15, 0.20).isEmpty());
+    }
+
+    @Test
+    public void testScheduledDeviceTurnsOnAndOff() {
+        scheduledDevices.add(new DeviceSchedule("Oven", start.plusMinutes(1)));
+        EnergyController controller = new EnergyController(0.10, 0.20, devicePriorities, start, 22.0,
+                desiredTemperatureRange, 30.0, 10.0, scheduledDevices);
+
+        assertEquals(Boolean.TRUE, controller.onTimeTick(start.plusMinutes(1)).get("Oven"));
+        Map<String, Boolean> changes = controller.onTimeTick(start.plusMinutes(2));
+        assertTrue(changes.containsKey("Oven"));
+        assertNull(changes.get("Oven"));
+    }
+
+    @Test
+    public void testPassedSchedulesAreDropped() {
+        for (int i = 0; i < 1000; i++) {
+            scheduledDevices.add(new DeviceSchedule("Oven", start.plusMinutes(i)));
+        }
+        scheduledDevices.add(new DeviceSchedule("TV", start.minusMinutes(1)));
+        EnergyController controller = new EnergyController(0.10, 0.20, devicePriorities, start, 22.0,
+                desiredTemperatureRange, 30.0, 10.0, scheduledDevices);
+        assertEquals(1000, controller.scheduledTimes());
+
+        controller.onTimeTick(start.plusMinutes(999));
+        assertEquals(1, controller.scheduledTimes());
+        assertTrue(controller.result().deviceStatus.get("Oven"));
+        controller.onSchedule(new DeviceSchedule("TV", start));
+        controller.onTimeTick(start.plusMinutes(1000));
+        assertEquals(0, controller.scheduledTimes());
+
+        // A full recompute only sees the schedules that are still ahead
+        controller.onEnergyUsage(40.0, 30.0);
+        assertNull(controller.result().deviceStatus.get("Oven"));
+        assertNull(controller.result().deviceStatus.get("TV"));
+    }
+
+    @Test
+    public void testHeatingNotInPrioritiesDisappearsWhenHot() {
+        devicePriorities.remove("Heating");
+        EnergyController controller = new EnergyController(0.10, 0.20, devicePriorities, start, 22.0,
+                desiredTemperatureRange, 30.0, 10.0, scheduledDevices);
+
+        Map<String, Boolean> changes = controller.onTemperatureReading(26.0);
+
+        assertTrue(changes.get("Cooling"));
+        assertTrue(changes.containsKey("Heating"));
+        assertFalse(controller.result().deviceStatus.containsKey("Heating"));
+    }
+
+    @Test
+    public void testMatchesManageEnergyAfterEveryEvent() {
+        Random random = new Random(13);
+        for (int i = 0; i < 50; i++) {
+            scheduledDevices.add(new DeviceSchedule(i % 2 == 0 ? "Oven" : "Lights", start.plusMinutes(random.nextInt(600))));
+        }
+        double currentPrice = 0.10;
+        double priceThreshold = 0.20;
+        LocalDateTime currentTime = start;
+        double currentTemperature = 22.0;
+        double energyUsageLimit = 30.0;
+        double totalEnergyUsedToday = 10.0;
+        EnergyController controller = new EnergyController(currentPrice, priceThreshold, devicePriorities, currentTime,
+                currentTemperature, desiredTemperatureRange, energyUsageLimit, totalEnergyUsedToday, scheduledDevices);
+
+        for (int i = 0; i < 2000; i++) {
+            switch (random.nextInt(5)) {
+                case 0:
+                    currentPrice = random.nextInt(40) / 100.0;
+                    controller.onPriceChange(currentPrice, priceThreshold);
+                    break;
+                case 1:
+                    currentTime = currentTime.plusMinutes(random.nextInt(20));
+                    controller.onTimeTick(currentTime);
+                    break;
+                case 2:
+                    currentTemperature = 16 + random.nextInt(12);
+                    controller.onTemperatureReading(currentTemperature);
+                    break;
+                case 3:
+                    DeviceSchedule schedule = new DeviceSchedule("TV", currentTime.plusMinutes(random.nextInt(3)));
+                    scheduledDevices.add(schedule);
+                    controller.onSchedule(schedule);
+                    break;
+                default:
+                    totalEnergyUsedToday = random.nextInt(40);
+                    controller.onEnergyUsage(totalEnergyUsedToday, energyUsageLimit);
+                    break;
+            }
+
+            EnergyManagementResult expected = energySystem.manageEnergy(currentPrice, priceThreshold, devicePriorities, currentTime,
+                    currentTemperature, desiredTemperatureRange, energyUsageLimit, totalEnergyUsedToday, scheduledDevices);
+            EnergyManagementResult actual = controller.result();
+            assertEquals(expected.deviceStatus, actual.deviceStatus);
+            assertEquals(expected.energySavingMode, actual.energySavingMode);
+            assertEquals(expected.temperatureRegulationActive, actual.temperatureRegulationActive);
+            assertEquals(expected.totalEnergyUsed, actual.totalEnergyUsed, 0.0);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package activity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import activity.EnergyFleet.FleetResult;
+import activity.EnergyFleet.Households;
+import activity.SmartEnergyManagementSystem.DeviceSchedule;
+import activity.SmartEnergyManagementSystem.EnergyManagementResult;
+
+import static org.junit.Assert.*;
+
+public class EnergyFleetTest {
+
+    private SmartEnergyManagementSystem energySystem;
+    private ForkJoinPool pool;
+    private EnergyFleet fleet;
+    private double[] desiredTemperatureRange;
+
+    @Before
+    public void initialize() {
+        energySystem = new SmartEnergyManagementSystem();
+        pool = new ForkJoinPool(4);
+        fleet = new EnergyFleet(energySystem, pool);
+        desiredTemperatureRange = new double[]{20.0, 24.0};
+    }
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testEmptyFleet() {
+        FleetResult result = fleet.manageEnergy(0.25, 0.20, new Households(0));
+
+        assertEquals(0, result.size());
+        assertTrue(result.energySavingMode());
+    }
+
+    @Test
+    public void testPriceDecisionIsShared() {
+        Map<String, Integer> devicePriorities = new HashMap<>();
+        devicePriorities.put("Lights", 2);
+        devicePriorities.put("Security", 1);
+        DeviceRegistry devices = DeviceRegistry.of(devicePriorities);
+        Households households = new Households(1);
+        households.add(devices, LocalDateTime.of(2024, 10, 1, 12, 0), 22.0, desiredTemperatureRange, 30.0, 10.0);
+        households.add(devices, LocalDateTime.of(2024, 10, 1, 23, 30), 18.0, desiredTemperatureRange, 30.0, 10.0);
+
+        FleetResult result = fleet.manageEnergy(0.25, 0.20, households);
+
+        assertTrue(result.energySavingMode());
+        assertFalse(result.deviceStatus(0).get("Lights"));
+        assertTrue(result.deviceStatus(0).get("Security"));
+        assertFalse(result.temperatureRegulationActive(0));
+        assertTrue(result.temperatureRegulationActive(1));
+        assertTrue(result.deviceStatus(1).get("Heating"));
+    }
+
+    @Test
+    public void testDueScheduleTurnsDeviceOn() {
+        DeviceRegistry devices = DeviceRegistry.of(Map.of("Lights", 2));
+        LocalDateTime currentTime = LocalDateTime.of(2024, 10, 1, 12, 0);
+        Households households = new Households(1);
+        households.add(devices, currentTime, 22.0, desiredTemperatureRange, 30.0, 40.0,
+                List.of(new DeviceSchedule("Lights", currentTime), new DeviceSchedule("Oven", currentTime.plusMinutes(1))));
+        households.add(devices, currentTime, 22.0, desiredTemperatureRange, 30.0, 40.0);
+
+        FleetResult result = fleet.manageEnergy(0.10, 0.20, households);
+
+        // The schedule is applied after the shutdown stage, as in manageEnergy
+        assertTrue(result.deviceStatus(0).get("Lights"));
+        assertNull(result.deviceStatus(0).get("Oven"));
+        assertFalse(result.deviceStatus(1).get("Lights"));
+    }
+
+    @Test
+    public void testMatchesManageEnergyPerHousehold() {
+        Random random = new Random(42);
+        LocalDateTime start = LocalDateTime.of(2024, 10, 1, 0, 0);
+        Households households = new Households(16);
+        Map<Integer, Map<String, Integer>> priorities = new HashMap<>();
+        Map<Integer, LocalDateTime> times = new HashMap<>();
+        Map<Integer, double[]> inputs = new HashMap<>();
+        Map<Integer, List<DeviceSchedule>> schedules = new HashMap<>();
+
+        for (int i = 0; i < 5000; i++) {
+            Map<String, Integer> devicePriorities = new HashMap<>();
+            int deviceCount = random.nextInt(12);
+            for (int device = 0; device < deviceCount; device++) {
+                devicePriorities.put("Device" + device, 1 + random.nextInt(3));
+            }
+            devicePriorities.put("Security", 1 + random.nextInt(3));
+            LocalDateTime currentTime = start.plusMinutes(random.nextInt(24 * 60));
+            double temperature = 15 + random.nextInt(15);
+            double used = random.nextInt(40) + random.nextDouble();
+            // Some schedules are due and some are not, for devices with and without a priority
+            List<DeviceSchedule> householdSchedules = new ArrayList<>();
+            for (int schedule = random.nextInt(4); schedule > 0; schedule--) {
+                String device = random.nextBoolean() ? "Device" + random.nextInt(12) : "Oven";
+                householdSchedules.add(new DeviceSchedule(device, random.nextBoolean() ? currentTime : currentTime.plusSeconds(30)));
+            }
+
+            int household = households.add(DeviceRegistry.of(devicePriorities), currentTime, temperature,
+                    desiredTemperatureRange, 30.0, used, householdSchedules);
+            schedules.put(household, householdSchedules);
+            priorities.put(household, devicePriorities);
+            times.put(household, currentTime);
+            inputs.put(household, new double[]{temperature, used});
+        }
+
+        FleetResult result = fleet.manageEnergy(0.10, 0.20, households);
+
+        assertEquals(5000, result.size());
+        for (int i = 0; i < result.size(); i++) {
+            EnergyManagementResult expected = energySystem.manageEnergy(0.10, 0.20, priorities.get(i), times.get(i),
+                    inputs.get(i)[0], desiredTemperatureRange, 30.0, inputs.get(i)[1], schedules.get(i));
+
+            assertEquals(expected.energySavingMode, result.energySavingMode());
+            assertEquals(expected.temperatureRegulationActive, result.temperatureRegulationActive(i));
+            assertEquals(expected.totalEnergyUsed, result.totalEnergyUsed(i), 0.0);
+            assertEquals(new HashMap<>(expected.deviceStatus), new HashMap<>(result.deviceStatus(i)));
+        }
+    }
+}
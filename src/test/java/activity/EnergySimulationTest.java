@@ -0,0 +1,172 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import activity.EnergySimulation.Scenario;
+
+import static org.junit.Assert.*;
+
+public class EnergySimulationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private DeviceRegistry devices;
+    private double[] desiredTemperatureRange;
+    private LocalDateTime start;
+
+    @Before
+    public void initialize() {
+        Map<String, Integer> devicePriorities = new HashMap<>();
+        devicePriorities.put("Lights", 2);
+        devicePriorities.put("Appliances", 3);
+        devicePriorities.put("Security", 1);
+        devicePriorities.put("Refrigerator", 1);
+        devices = DeviceRegistry.of(devicePriorities);
+        desiredTemperatureRange = new double[]{20.0, 24.0};
+        start = LocalDateTime.of(2024, 10, 1, 12, 0);
+    }
+
+    private EnergySimulation simulation() {
+        return new EnergySimulation(new SmartEnergyManagementSystem(), devices, desiredTemperatureRange, 0.5);
+    }
+
+    private long millis(LocalDateTime time) {
+        return EpochTime.toEpochMillis(time);
+    }
+
+    @Test
+    public void testDecisionHoldsUntilNextSample() {
+        EnergySimulation simulation = simulation();
+        Scenario scenario = simulation.addScenario(0.20, 1000.0);
+
+        simulation.advance(millis(start), 0.10, 22.0);
+        simulation.advance(millis(start.plusHours(1)), 0.25, 22.0);
+        simulation.advance(millis(start.plusHours(3)), 0.10, 22.0);
+
+        // Four devices for an hour, then Security and Refrigerator for two hours
+        assertEquals(8.0, scenario.deviceHours(), 1e-9);
+        assertEquals(4.0, scenario.totalEnergyUsed(), 1e-9);
+        assertEquals(2.0, scenario.energySavingModeHours(), 1e-9);
+        assertEquals(3, simulation.samples());
+    }
+
+    @Test
+    public void testScenariosShareOnePass() {
+        EnergySimulation simulation = simulation();
+        Scenario cheap = simulation.addScenario(0.05, 1000.0);
+        Scenario expensive = simulation.addScenario(0.50, 1000.0);
+
+        simulation.advance(millis(start), 0.10, 22.0);
+        simulation.advance(millis(start.plusHours(1)), 0.10, 22.0);
+
+        assertEquals(1.0, cheap.energySavingModeHours(), 1e-9);
+        assertEquals(2.0, cheap.deviceHours(), 1e-9);
+        assertEquals(0.0, expensive.energySavingModeHours(), 1e-9);
+        assertEquals(4.0, expensive.deviceHours(), 1e-9);
+    }
+
+    @Test
+    public void testUsageLimitShutsDevicesAndResetsAtMidnight() {
+        EnergySimulation simulation = simulation();
+        Scenario scenario = simulation.addScenario(1.0, 3.0);
+
+        // 2 kWh per hour until the limit is reached, then the low-priority devices go
+        // off, then the rest once the remaining ones push usage past the limit again
+        LocalDateTime time = LocalDateTime.of(2024, 10, 1, 18, 0);
+        for (int hour = 0; hour <= 5; hour++) {
+            simulation.advance(millis(time.plusHours(hour)), 0.10, 22.0);
+        }
+        double beforeMidnight = scenario.totalEnergyUsed();
+        assertEquals(5.0, beforeMidnight, 1e-9);
+
+        // Past midnight the usage restarts, but night mode keeps only two devices on
+        simulation.advance(millis(LocalDateTime.of(2024, 10, 2, 1, 0)), 0.10, 22.0);
+        simulation.advance(millis(LocalDateTime.of(2024, 10, 2, 2, 0)), 0.10, 22.0);
+        assertEquals(beforeMidnight + 1.0, scenario.totalEnergyUsed(), 1e-9);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfOrderSampleIsRejected() {
+        EnergySimulation simulation = simulation();
+        simulation.advance(millis(start), 0.10, 22.0);
+        simulation.advance(millis(start.minusMinutes(1)), 0.10, 22.0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testScenariosAreFixedOnceStarted() {
+        EnergySimulation simulation = simulation();
+        simulation.advance(millis(start), 0.10, 22.0);
+        simulation.addScenario(0.20, 30.0);
+    }
+
+    @Test
+    public void testCsvAndBinaryReplaysMatch() throws IOException {
+        int minutes = 3 * 24 * 60;
+        long[] times = new long[minutes];
+        double[] prices = new double[minutes];
+        double[] temperatures = new double[minutes];
+        StringBuilder csv = new StringBuilder("time,price,temperature\n");
+        Random random = new Random(42);
+        for (int i = 0; i < minutes; i++) {
+            LocalDateTime time = start.plusMinutes(i);
+            times[i] = millis(time);
+            prices[i] = random.nextInt(40) / 100.0;
+            temperatures[i] = 15 + random.nextInt(15);
+            csv.append(time).append(',').append(prices[i]).append(',').append(temperatures[i]).append('\n');
+        }
+        Path csvFile = folder.getRoot().toPath().resolve("series.csv");
+        Path binaryFile = folder.getRoot().toPath().resolve("series.bin");
+        Files.write(csvFile, csv.toString().getBytes(StandardCharsets.UTF_8));
+        EnergySimulation.writeBinary(binaryFile, times, prices, temperatures);
+
+        EnergySimulation fromCsv = simulation();
+        EnergySimulation fromBinary = simulation();
+        for (EnergySimulation simulation : Arrays.asList(fromCsv, fromBinary)) {
+            simulation.addScenario(0.20, 10.0);
+            simulation.addScenario(0.30, 30.0);
+        }
+        fromCsv.replayCsv(csvFile);
+        fromBinary.replayBinary(binaryFile);
+
+        assertEquals(minutes, fromCsv.samples());
+        assertEquals(minutes, fromBinary.samples());
+        for (int i = 0; i < 2; i++) {
+            Scenario expected = fromCsv.scenarios().get(i);
+            Scenario actual = fromBinary.scenarios().get(i);
+            assertEquals(expected.deviceHours(), actual.deviceHours(), 0.0);
+            assertEquals(expected.energySavingModeHours(), actual.energySavingModeHours(), 0.0);
+            assertEquals(expected.totalEnergyUsed(), actual.totalEnergyUsed(), 0.0);
+        }
+        assertTrue(fromCsv.scenarios().get(0).energySavingModeHours() > fromCsv.scenarios().get(1).energySavingModeHours());
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedBinarySeriesIsRejected() throws IOException {
+        Path binaryFile = folder.getRoot().toPath().resolve("series.bin");
+        Files.write(binaryFile, new byte[EnergySimulation.SAMPLE_BYTES + 3]);
+
+        simulation().replayBinary(binaryFile);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMalformedCsvIsRejected() throws IOException {
+        Path csvFile = folder.getRoot().toPath().resolve("series.csv");
+        Files.write(csvFile, "2024-10-01T12:00,abc,22\n".getBytes(StandardCharsets.UTF_8));
+
+        simulation().replayCsv(csvFile);
+    }
+}
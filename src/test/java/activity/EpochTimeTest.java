@@ -0,0 +1,89 @@
+package activity;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EpochTimeTest {
+
+    @Test
+    public void testRoundTrip() {
+        LocalDateTime time = LocalDateTime.of(2024, 10, 1, 23, 30, 15, 123_000_000);
+
+        assertEquals(time, EpochTime.toLocalDateTime(EpochTime.toEpochMillis(time)));
+    }
+
+    @Test
+    public void testRoundTripBeforeEpoch() {
+        LocalDateTime time = LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_000_000);
+
+        assertEquals(-1, EpochTime.toEpochMillis(time));
+        assertEquals(time, EpochTime.toLocalDateTime(-1));
+    }
+
+    @Test
+    public void testTruncationMatchesDuration() {
+        Random random = new Random(3);
+        LocalDateTime base = LocalDateTime.of(2024, 10, 1, 12, 0);
+
+        for (int i = 0; i < 10000; i++) {
+            LocalDateTime from = base.plusNanos(random.nextInt(1_000_000) * 1_000_000L);
+            LocalDateTime to = base.plusNanos((random.nextInt(2_000_000) - 1_000_000) * 1_000_000L);
+            long fromMillis = EpochTime.toEpochMillis(from);
+            long toMillis = EpochTime.toEpochMillis(to);
+
+            assertEquals(Duration.between(from, to).toMinutes(), EpochTime.minutesBetween(fromMillis, toMillis));
+            assertEquals(Duration.between(from, to).toHours(), EpochTime.hoursBetween(fromMillis, toMillis));
+        }
+    }
+
+    @Test
+    public void testRoundTripKeepsSubMillisNanos() {
+        LocalDateTime time = LocalDateTime.of(2024, 10, 1, 23, 30, 15, 123_456_789);
+
+        assertEquals(456_789, EpochTime.subMillisNanos(time));
+        assertEquals(time, EpochTime.toLocalDateTime(EpochTime.toEpochMillis(time), EpochTime.subMillisNanos(time)));
+    }
+
+    @Test
+    public void testSubMillisTruncationMatchesDuration() {
+        // One nanosecond short of an hour must still count as 59 minutes
+        LocalDateTime from = LocalDateTime.of(2024, 10, 1, 12, 0, 0, 500_000);
+        LocalDateTime to = from.plusHours(1).minusNanos(1);
+
+        assertEquals(59, Duration.between(from, to).toMinutes());
+        assertEquals(59, EpochTime.minutesBetween(EpochTime.toEpochMillis(from), EpochTime.subMillisNanos(from),
+                EpochTime.toEpochMillis(to), EpochTime.subMillisNanos(to)));
+        assertEquals(0, EpochTime.hoursBetween(from, to));
+
+        Random random = new Random(5);
+        for (int i = 0; i < 10000; i++) {
+            LocalDateTime a = from.plusNanos(random.nextInt(1_000_000_000));
+            LocalDateTime b = from.plusNanos(random.nextInt(2_000_000_000) - 1_000_000_000L);
+
+            assertEquals(Duration.between(a, b).toMinutes(), EpochTime.minutesBetween(EpochTime.toEpochMillis(a),
+                    EpochTime.subMillisNanos(a), EpochTime.toEpochMillis(b), EpochTime.subMillisNanos(b)));
+            assertEquals(Duration.between(a, b).toHours(), EpochTime.hoursBetween(a, b));
+        }
+    }
+
+    @Test
+    public void testNegativeDifferenceFloorsSeconds() {
+        assertEquals(Duration.ofMillis(-59_500).toMinutes(), EpochTime.minutesBetween(59_500, 0));
+        assertEquals(-1, EpochTime.minutesBetween(59_500, 0));
+        assertEquals(0, EpochTime.minutesBetween(59_000, 0));
+    }
+
+    @Test
+    public void testHourOfDay() {
+        LocalDateTime time = LocalDateTime.of(2024, 10, 1, 23, 59, 59);
+
+        assertEquals(23, EpochTime.hourOfDay(EpochTime.toEpochMillis(time)));
+        assertEquals(0, EpochTime.hourOfDay(0));
+        assertEquals(23, EpochTime.hourOfDay(-1));
+    }
+}
@@ -0,0 +1,170 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import activity.FlightBookingSystem.BookingResult;
+
+import static org.junit.Assert.*;
+
+public class FlightInventoryTest {
+
+    private FlightInventory inventory;
+    private FlightBookingSystem flightBookingSystem;
+    private LocalDateTime bookingTime;
+    private LocalDateTime departureTime;
+
+    @Before
+    public void initialize() {
+        inventory = new FlightInventory();
+        flightBookingSystem = new FlightBookingSystem();
+        bookingTime = LocalDateTime.of(2024, 10, 1, 12, 0);
+        departureTime = bookingTime.plusDays(10);
+    }
+
+    @Test
+    public void testReserveAndRelease() {
+        inventory.addFlight(1, 5);
+
+        assertTrue(inventory.reserve(1, 3));
+        assertFalse(inventory.reserve(1, 3));
+        assertEquals(2, inventory.availableSeats(1));
+
+        inventory.release(1, 3);
+        assertTrue(inventory.reserve(1, 5));
+        assertEquals(0, inventory.availableSeats(1));
+    }
+
+    @Test
+    public void testReservationGathersSeatsFromAllStripes() {
+        inventory.addFlight(1, 10, 4);
+
+        // No single stripe holds more than 3 seats
+        assertTrue(inventory.reserve(1, 9));
+        assertEquals(1, inventory.availableSeats(1));
+        assertFalse(inventory.reserve(1, 2));
+        assertTrue(inventory.reserve(1, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeReservationIsRejected() {
+        inventory.addFlight(1, 5);
+
+        inventory.reserve(1, -5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyReleaseIsRejected() {
+        inventory.addFlight(1, 5);
+
+        inventory.release(1, 0);
+    }
+
+    @Test
+    public void testReleaseIsCappedAtCapacity() {
+        inventory.addFlight(1, 10, 4);
+        assertTrue(inventory.reserve(1, 3));
+
+        inventory.release(1, 5);
+
+        assertEquals(10, inventory.availableSeats(1));
+        assertFalse(inventory.reserve(1, 11));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownFlight() {
+        inventory.reserve(42, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFlightAddedTwice() {
+        inventory.addFlight(1, 5);
+        inventory.addFlight(1, 5);
+    }
+
+    @Test
+    public void testBookFlightReservesSeats() {
+        inventory.addFlight(1, 5);
+
+        BookingResult booked = inventory.bookFlight(flightBookingSystem, 1, 4, bookingTime, 1000.0, 100, false, departureTime, 0);
+        BookingResult rejected = inventory.bookFlight(flightBookingSystem, 1, 2, bookingTime, 1000.0, 100, false, departureTime, 0);
+
+        assertTrue(booked.confirmation);
+        assertEquals(3200.0, booked.totalPrice, 0.005);
+        assertFalse(rejected.confirmation);
+        assertEquals(0, rejected.totalPrice, 0.0);
+        assertEquals(1, inventory.availableSeats(1));
+    }
+
+    @Test
+    public void testBookingThatThrowsKeepsNoSeats() {
+        inventory.addFlight(1, 5);
+
+        try {
+            inventory.bookFlight(flightBookingSystem, 1, 2, null, 1000.0, 100, false, departureTime, 0);
+            fail();
+        } catch (NullPointerException e) {
+            assertEquals(5, inventory.availableSeats(1));
+        }
+    }
+
+    @Test
+    public void testCancellationReleasesSeats() {
+        inventory.addFlight(1, 4);
+        inventory.bookFlight(flightBookingSystem, 1, 4, bookingTime, 1000.0, 100, false, departureTime, 0);
+
+        BookingResult cancelled = inventory.bookFlight(flightBookingSystem, 1, 4, bookingTime, 1000.0, 100, true, departureTime, 0);
+
+        assertFalse(cancelled.confirmation);
+        assertEquals(3200.0, cancelled.refundAmount, 0.005);
+        assertEquals(4, inventory.availableSeats(1));
+    }
+
+    @Test(timeout = 10000)
+    public void testNoOverbookingUnderContention() throws InterruptedException {
+        int seats = 10_000;
+        inventory.addFlight(1, seats, 8);
+        AtomicInteger booked = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            int passengers = 1 + t % 3;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                int failures = 0;
+                int reservations = 0;
+                // Releases keep seats moving between stripes while others reserve
+                while (failures < 100) {
+                    if (inventory.reserve(1, passengers)) {
+                        booked.addAndGet(passengers);
+                        if (++reservations % 7 == 0) {
+                            inventory.release(1, passengers);
+                            booked.addAndGet(-passengers);
+                        }
+                    } else {
+                        failures++;
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(seats, booked.get() + inventory.availableSeats(1));
+    }
+}
@@ -0,0 +1,117 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import activity.FlightBookingSystem.BookingResult;
+import activity.FlightQuoteEngine.Flight;
+import activity.FlightQuoteEngine.Quote;
+
+import static org.junit.Assert.*;
+
+public class FlightQuoteEngineTest {
+
+    private FlightBookingSystem flightBookingSystem;
+    private FlightQuoteEngine engine;
+    private LocalDateTime departureTime;
+
+    @Before
+    public void initialize() {
+        flightBookingSystem = new FlightBookingSystem();
+        engine = new FlightQuoteEngine();
+        departureTime = LocalDateTime.of(2024, 10, 10, 12, 0);
+    }
+
+    private void assertSameResult(BookingResult expected, Quote actual) {
+        assertEquals(expected.confirmation, actual.confirmation);
+        assertEquals(expected.pointsUsed, actual.pointsUsed);
+        assertEquals(Double.doubleToLongBits(expected.totalPrice), Double.doubleToLongBits(actual.totalPrice));
+        assertEquals(Double.doubleToLongBits(expected.refundAmount), Double.doubleToLongBits(actual.refundAmount));
+    }
+
+    @Test
+    public void testFlightIsReusedUntilInputsChange() {
+        Flight flight = engine.flight(1, 1000.0, 120, departureTime);
+
+        assertSame(flight, engine.flight(1, 1000.0, 120, departureTime));
+        assertNotSame(flight, engine.flight(1, 1000.0, 121, departureTime));
+        assertNotSame(flight, engine.flight(2, 1000.0, 120, departureTime));
+    }
+
+    @Test
+    public void testLastMinuteAndRefundBoundaries() {
+        Quote quote = new Quote();
+        int[] minutesBefore = {-61, -1, 0, 1, 24 * 60 - 1, 24 * 60, 24 * 60 + 1, 48 * 60 - 1, 48 * 60, 48 * 60 + 1};
+        for (int minutes : minutesBefore) {
+            for (int seconds : new int[]{-1, 0, 1}) {
+                LocalDateTime bookingTime = departureTime.minusMinutes(minutes).plusSeconds(seconds);
+                for (boolean isCancellation : new boolean[]{false, true}) {
+                    BookingResult expected = flightBookingSystem.bookFlight(2, bookingTime, 10, 1000.0, 120,
+                            isCancellation, departureTime, 0);
+                    engine.quote(1, 2, bookingTime, 10, 1000.0, 120, isCancellation, departureTime, 0, quote);
+
+                    assertSameResult(expected, quote);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSubMillisecondBoundaries() {
+        Quote quote = new Quote();
+        for (LocalDateTime departure : new LocalDateTime[]{departureTime, departureTime.plusNanos(700)}) {
+            for (int hours : new int[]{24, 48}) {
+                for (long nanos : new long[]{-500, -1, 0, 1, 500, 999_999, 1_000_000}) {
+                    LocalDateTime bookingTime = departure.minusHours(hours).plusNanos(nanos);
+                    for (boolean isCancellation : new boolean[]{false, true}) {
+                        BookingResult expected = flightBookingSystem.bookFlight(2, bookingTime, 10, 1000.0, 120,
+                                isCancellation, departure, 0);
+                        engine.quote(1, 2, bookingTime, 10, 1000.0, 120, isCancellation, departure, 0, quote);
+
+                        assertSameResult(expected, quote);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testQuoteIntoReusedResult() {
+        Quote quote = new Quote();
+        LocalDateTime bookingTime = departureTime.minusDays(5);
+
+        assertSame(quote, engine.quote(1, 3, bookingTime, 2, 1000.0, 120, false, departureTime, 0, quote));
+        assertFalse(quote.confirmation);
+        assertEquals(0, quote.totalPrice, 0.0);
+
+        engine.quote(1, 2, bookingTime, 2, 1000.0, 120, false, departureTime, 500, quote);
+        assertTrue(quote.confirmation);
+        assertTrue(quote.pointsUsed);
+        assertEquals(1915.0, quote.totalPrice, 1e-9);
+    }
+
+    @Test
+    public void testMatchesBookFlight() {
+        Random random = new Random(42);
+        Quote quote = new Quote();
+        for (int i = 0; i < 20000; i++) {
+            int passengers = 1 + random.nextInt(8);
+            int availableSeats = random.nextInt(10);
+            double currentPrice = 50 + random.nextInt(200000) / 100.0;
+            int previousSales = random.nextInt(300);
+            boolean isCancellation = random.nextBoolean();
+            int rewardPoints = random.nextBoolean() ? 0 : random.nextInt(5000);
+            LocalDateTime bookingTime = departureTime.minusSeconds(random.nextInt(4 * 24 * 3600) - 3600);
+
+            BookingResult expected = flightBookingSystem.bookFlight(passengers, bookingTime, availableSeats, currentPrice,
+                    previousSales, isCancellation, departureTime, rewardPoints);
+            engine.quote(random.nextInt(4), passengers, bookingTime, availableSeats, currentPrice, previousSales,
+                    isCancellation, departureTime, rewardPoints, quote);
+
+            assertSameResult(expected, quote);
+        }
+    }
+}
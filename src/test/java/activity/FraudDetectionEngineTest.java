@@ -0,0 +1,115 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import activity.FraudDetectionSystem.Transaction;
+import activity.FraudDetectionSystem.FraudCheckResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FraudDetectionEngineTest {
+
+    private FraudDetectionEngine engine;
+    private List<String> blacklistedLocations;
+    private LocalDateTime start;
+
+    @Before
+    public void initialize() {
+        blacklistedLocations = Arrays.asList("HighRiskCountry1", "HighRiskCountry2");
+        engine = new FraudDetectionEngine(blacklistedLocations);
+        start = LocalDateTime.of(2024, 10, 1, 12, 0);
+    }
+
+    @Test
+    public void testFirstTransactionOfAccount() {
+        FraudCheckResult result = engine.checkForFraud(1, new Transaction(500, start, "Brazil"));
+
+        assertFalse(result.isFraudulent);
+        assertFalse(result.isBlocked);
+        assertFalse(result.verificationRequired);
+        assertEquals(0, result.riskScore);
+    }
+
+    @Test
+    public void testExcessiveTransactionsInShortTime() {
+        for (int i = 0; i < 11; i++) {
+            engine.checkForFraud(1, new Transaction(100, start.plusMinutes(5 * i), "Brazil"));
+        }
+
+        FraudCheckResult result = engine.checkForFraud(1, new Transaction(100, start.plusMinutes(60), "Brazil"));
+
+        assertTrue(result.isBlocked);
+        assertEquals(30, result.riskScore);
+    }
+
+    @Test
+    public void testOldTransactionsAreEvicted() {
+        for (int i = 0; i < 11; i++) {
+            engine.checkForFraud(1, new Transaction(100, start.plusMinutes(i), "Brazil"));
+        }
+
+        FraudCheckResult result = engine.checkForFraud(1, new Transaction(100, start.plusMinutes(72), "Brazil"));
+
+        assertFalse(result.isBlocked);
+        assertEquals(0, result.riskScore);
+        assertEquals(1, engine.recentTransactionCount(1));
+    }
+
+    @Test
+    public void testLocationChangeAfterEviction() {
+        engine.checkForFraud(1, new Transaction(100, start, "France"));
+        engine.checkForFraud(1, new Transaction(100, start.plusMinutes(200), "France"));
+
+        FraudCheckResult result = engine.checkForFraud(1, new Transaction(100, start.plusMinutes(229), "Brazil"));
+
+        assertTrue(result.isFraudulent);
+        assertTrue(result.verificationRequired);
+        assertEquals(20, result.riskScore);
+    }
+
+    @Test
+    public void testAccountsAreIndependent() {
+        engine.checkForFraud(1, new Transaction(100, start, "France"));
+
+        FraudCheckResult result = engine.checkForFraud(2, new Transaction(100, start.plusMinutes(1), "Brazil"));
+
+        assertFalse(result.isFraudulent);
+        assertEquals(0, result.riskScore);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfOrderTransactionIsRejected() {
+        engine.checkForFraud(1, new Transaction(100, start, "Brazil"));
+        engine.checkForFraud(1, new Transaction(100, start.minusMinutes(1), "Brazil"));
+    }
+
+    @Test
+    public void testMatchesFraudDetectionSystem() {
+        FraudDetectionSystem fraudDetectionSystem = new FraudDetectionSystem();
+        List<String> locations = Arrays.asList("Brazil", "France", "HighRiskCountry1");
+        List<Transaction> previousTransactions = new ArrayList<>();
+        Random random = new Random(42);
+        LocalDateTime time = start;
+
+        for (int i = 0; i < 2000; i++) {
+            time = time.plusSeconds(random.nextInt(900));
+            Transaction transaction = new Transaction(random.nextInt(12000), time, locations.get(random.nextInt(locations.size())));
+
+            FraudCheckResult expected = fraudDetectionSystem.checkForFraud(transaction, previousTransactions, blacklistedLocations);
+            FraudCheckResult actual = engine.checkForFraud(7, transaction);
+            previousTransactions.add(transaction);
+
+            assertEquals(expected.isFraudulent, actual.isFraudulent);
+            assertEquals(expected.isBlocked, actual.isBlocked);
+            assertEquals(expected.verificationRequired, actual.verificationRequired);
+            assertEquals(expected.riskScore, actual.riskScore);
+        }
+    }
+}
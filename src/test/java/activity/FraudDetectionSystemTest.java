@@ -5,11 +5,14 @@ import org.junit.Test;
 
 import activity.FraudDetectionSystem.Transaction;
 import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudDetectionSystem.TransactionBatch;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.Assert.*;
 
@@ -185,4 +188,94 @@ public class FraudDetectionSystemTest {
         assertEquals(20, result.riskScore);
     }
 
+    @Test
+    public void testEpochMillisTransactions() {
+        long now = 1_727_784_000_000L;
+        Transaction currentTransaction = new Transaction(1000, now, "Brazil");
+        previousTransactions.add(new Transaction(100, now - 29 * 60_000 - 59_999, "France"));
+
+        FraudCheckResult result = fraudDetectionSystem.checkForFraud(currentTransaction, previousTransactions, blacklistedLocations);
+
+        assertTrue(result.isFraudulent);
+        assertTrue(result.verificationRequired);
+        assertEquals(20, result.riskScore);
+    }
+
+    @Test
+    public void testSubMillisecondTimestamps() {
+        LocalDateTime previousTime = LocalDateTime.of(2024, 10, 1, 8, 0, 0, 500);
+        Transaction currentTransaction = new Transaction(1000, previousTime.plusMinutes(30).minusNanos(1), "Brazil");
+        previousTransactions.add(new Transaction(100, previousTime, "France"));
+        LocationBlacklist blacklist = new LocationBlacklist(blacklistedLocations);
+        TransactionBatch batch = new TransactionBatch(2);
+        batch.add(previousTransactions.get(0), blacklist.dictionary());
+        batch.add(currentTransaction, blacklist.dictionary());
+        int[] riskScores = new int[2];
+        byte[] flags = new byte[2];
+
+        FraudCheckResult result = fraudDetectionSystem.checkForFraud(currentTransaction, previousTransactions, blacklistedLocations);
+        fraudDetectionSystem.checkForFraud(batch, blacklist, riskScores, flags);
+
+        assertEquals(currentTransaction.timestamp, EpochTime.toLocalDateTime(currentTransaction.epochMillis, currentTransaction.subMillisNanos));
+        assertTrue(result.verificationRequired);
+        assertEquals(20, result.riskScore);
+        assertEquals(20, riskScores[1]);
+    }
+
+    @Test
+    public void testBatchMatchesPerCallChecks() {
+        LocationBlacklist blacklist = new LocationBlacklist(blacklistedLocations);
+        List<String> locations = Arrays.asList("Brazil", "France", "HighRiskCountry2");
+        Random random = new Random(7);
+        LocalDateTime time = LocalDateTime.of(2024, 10, 1, 8, 0);
+        TransactionBatch batch = new TransactionBatch(4);
+
+        for (int i = 0; i < 1000; i++) {
+            time = time.plusSeconds(random.nextInt(600));
+            previousTransactions.add(new Transaction(random.nextInt(11000), time, locations.get(random.nextInt(locations.size()))));
+            batch.add(previousTransactions.get(i), blacklist.dictionary());
+        }
+        assertBatchMatchesPerCallChecks(batch, blacklist);
+
+        Collections.shuffle(previousTransactions, random);
+        batch.clear();
+        for (Transaction transaction : previousTransactions) {
+            batch.add(transaction, blacklist.dictionary());
+        }
+        assertBatchMatchesPerCallChecks(batch, blacklist);
+    }
+
+    @Test
+    public void testBatchFlags() {
+        LocationBlacklist blacklist = new LocationBlacklist(blacklistedLocations);
+        TransactionBatch batch = new TransactionBatch(2);
+        batch.add(0, 100, blacklist.dictionary().idOf("France"));
+        batch.add(60_000, 12000, blacklist.dictionary().idOf("HighRiskCountry1"));
+        int[] riskScores = new int[2];
+        byte[] flags = new byte[2];
+
+        fraudDetectionSystem.checkForFraud(batch, blacklist, riskScores, flags);
+
+        assertEquals(0, riskScores[0]);
+        assertEquals(0, flags[0]);
+        assertEquals(100, riskScores[1]);
+        assertEquals(FraudCheckResult.FRAUDULENT | FraudCheckResult.BLOCKED | FraudCheckResult.VERIFICATION_REQUIRED, flags[1]);
+    }
+
+    private void assertBatchMatchesPerCallChecks(TransactionBatch batch, LocationBlacklist blacklist) {
+        int[] riskScores = new int[batch.size()];
+        byte[] flags = new byte[batch.size()];
+
+        fraudDetectionSystem.checkForFraud(batch, blacklist, riskScores, flags);
+
+        for (int i = 0; i < batch.size(); i++) {
+            FraudCheckResult expected = fraudDetectionSystem.checkForFraud(previousTransactions.get(i),
+                    previousTransactions.subList(0, i), blacklistedLocations);
+            assertEquals(expected.riskScore, riskScores[i]);
+            assertEquals(expected.isFraudulent, (flags[i] & FraudCheckResult.FRAUDULENT) != 0);
+            assertEquals(expected.isBlocked, (flags[i] & FraudCheckResult.BLOCKED) != 0);
+            assertEquals(expected.verificationRequired, (flags[i] & FraudCheckResult.VERIFICATION_REQUIRED) != 0);
+        }
+    }
+
 }
@@ -0,0 +1,136 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import activity.FraudDetectionSystem.Transaction;
+import activity.FraudDetectionSystem.FraudCheckResult;
+import activity.FraudRulePipeline.Assessment;
+import activity.FraudRulePipeline.Context;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class FraudRulePipelineTest {
+
+    private FraudThresholds thresholds;
+    private FraudRulePipeline pipeline;
+    private LocationBlacklist blacklist;
+    private List<Transaction> previousTransactions;
+    private LocalDateTime now;
+
+    @Before
+    public void initialize() {
+        thresholds = new FraudThresholds();
+        pipeline = FraudRulePipeline.defaults(thresholds);
+        blacklist = new LocationBlacklist(Arrays.asList("HighRiskCountry1", "HighRiskCountry2"));
+        previousTransactions = new ArrayList<>();
+        now = LocalDateTime.of(2024, 10, 1, 12, 0);
+    }
+
+    @Test
+    public void testBlacklistRunsFirst() {
+        assertEquals(Arrays.asList("blacklist", "amount", "locationChange", "velocity"), pipeline.ruleOrder());
+    }
+
+    @Test
+    public void testMatchesCheckForFraud() {
+        FraudDetectionSystem fraudDetectionSystem = new FraudDetectionSystem();
+        List<String> locations = Arrays.asList("Brazil", "France", "HighRiskCountry1");
+        Random random = new Random(11);
+        LocalDateTime time = now;
+
+        for (int i = 0; i < 1000; i++) {
+            time = time.plusSeconds(random.nextInt(600));
+            Transaction transaction = new Transaction(random.nextInt(12000), time, locations.get(random.nextInt(locations.size())));
+
+            FraudCheckResult expected = fraudDetectionSystem.checkForFraud(transaction, previousTransactions, blacklist);
+            FraudCheckResult actual = pipeline.checkForFraud(transaction, previousTransactions, blacklist);
+            previousTransactions.add(transaction);
+
+            assertEquals(expected.isFraudulent, actual.isFraudulent);
+            assertEquals(expected.isBlocked, actual.isBlocked);
+            assertEquals(expected.verificationRequired, actual.verificationRequired);
+            assertEquals(expected.riskScore, actual.riskScore);
+        }
+    }
+
+    @Test
+    public void testBlacklistedTransactionSkipsVelocityRule() {
+        int[] velocityEvaluations = new int[1];
+        FraudRule countingVelocity = new FraudRule() {
+            public String name() {
+                return "countingVelocity";
+            }
+
+            public int affects() {
+                return BLOCKED | RISK_SCORE;
+            }
+
+            public int cost() {
+                return 10;
+            }
+
+            public void apply(Context context, Assessment assessment) {
+                velocityEvaluations[0]++;
+            }
+        };
+        FraudRulePipeline countingPipeline = FraudRulePipeline.compile(Arrays.asList(
+                FraudRules.amount(thresholds), countingVelocity, FraudRules.blacklist(thresholds)));
+
+        countingPipeline.checkForFraud(new Transaction(100, now, "Brazil"), previousTransactions, blacklist);
+        FraudCheckResult result = countingPipeline.checkForFraud(new Transaction(12000, now, "HighRiskCountry1"), previousTransactions, blacklist);
+
+        assertEquals(1, velocityEvaluations[0]);
+        assertTrue(result.isFraudulent);
+        assertTrue(result.isBlocked);
+        assertEquals(100, result.riskScore);
+    }
+
+    @Test
+    public void testThresholdsApplyWithoutRecompiling() {
+        Transaction transaction = new Transaction(6000, now, "Brazil");
+
+        assertEquals(0, pipeline.checkForFraud(transaction, previousTransactions, blacklist).riskScore);
+
+        thresholds.amountLimit(5000, 40);
+        FraudCheckResult result = pipeline.checkForFraud(transaction, previousTransactions, blacklist);
+
+        assertTrue(result.isFraudulent);
+        assertEquals(40, result.riskScore);
+    }
+
+    @Test
+    public void testCustomRule() {
+        FraudRule nightRule = new FraudRule() {
+            public String name() {
+                return "night";
+            }
+
+            public int affects() {
+                return VERIFICATION_REQUIRED | RISK_SCORE;
+            }
+
+            public void apply(Context context, Assessment assessment) {
+                if (context.current().timestamp.getHour() < 6) {
+                    assessment.flag(VERIFICATION_REQUIRED);
+                    assessment.addRisk(10);
+                }
+            }
+        };
+        List<FraudRule> rules = new ArrayList<>(FraudRules.defaults(thresholds));
+        rules.add(nightRule);
+        FraudRulePipeline customPipeline = FraudRulePipeline.compile(rules);
+
+        FraudCheckResult result = customPipeline.checkForFraud(new Transaction(100, now.withHour(3), "Brazil"), previousTransactions, blacklist);
+
+        assertFalse(result.isFraudulent);
+        assertTrue(result.verificationRequired);
+        assertEquals(10, result.riskScore);
+    }
+}
@@ -0,0 +1,155 @@
+package activity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import activity.FraudDetectionSystem.Transaction;
+import activity.FraudDetectionSystem.FraudCheckResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.Assert.*;
+
+public class FraudScoringServiceTest {
+
+    private LocationBlacklist blacklist;
+    private FraudScoringService service;
+    private LocalDateTime start;
+
+    @Before
+    public void initialize() {
+        blacklist = new LocationBlacklist(Arrays.asList("HighRiskCountry1", "HighRiskCountry2"));
+        start = LocalDateTime.of(2024, 10, 1, 12, 0);
+    }
+
+    @After
+    public void cleanUp() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    @Test
+    public void testForkJoinMatchesSequentialEngine() throws Exception {
+        service = FraudScoringService.forkJoin(4, 64, blacklist);
+        assertMatchesSequentialEngine();
+    }
+
+    @Test
+    public void testVirtualThreadsMatchSequentialEngine() throws Exception {
+        service = FraudScoringService.virtualThreads(8, 64, blacklist);
+        assertMatchesSequentialEngine();
+    }
+
+    @Test
+    public void testTrySubmitRejectsWhenFull() throws Exception {
+        List<Runnable> parked = new ArrayList<>();
+        Executor manualExecutor = parked::add;
+        service = new FraudScoringService(manualExecutor, 1, 1, blacklist);
+
+        CompletableFuture<FraudCheckResult> first = service.trySubmit(1, new Transaction(100, start, "Brazil"));
+        CompletableFuture<FraudCheckResult> second = service.trySubmit(1, new Transaction(100, start, "Brazil"));
+
+        assertNotNull(first);
+        assertNull(second);
+
+        parked.get(0).run();
+        assertEquals(0, first.get().riskScore);
+        CompletableFuture<FraudCheckResult> third = service.trySubmit(1, new Transaction(100, start, "Brazil"));
+        assertNotNull(third);
+        parked.get(1).run();
+        assertTrue(third.isDone());
+    }
+
+    @Test
+    public void testRejectedDrainFailsFutureAndReleasesCapacity() throws Exception {
+        List<Runnable> parked = new ArrayList<>();
+        boolean[] rejecting = {true};
+        Executor rejectingExecutor = task -> {
+            if (rejecting[0]) {
+                throw new RejectedExecutionException("Executor is saturated");
+            }
+            parked.add(task);
+        };
+        service = new FraudScoringService(rejectingExecutor, 1, 1, blacklist);
+
+        CompletableFuture<FraudCheckResult> rejected = service.trySubmit(1, new Transaction(100, start, "Brazil"));
+
+        try {
+            rejected.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        rejecting[0] = false;
+        CompletableFuture<FraudCheckResult> accepted = service.trySubmit(1, new Transaction(100, start, "Brazil"));
+        assertNotNull(accepted);
+        parked.get(0).run();
+        assertEquals(0, accepted.get().riskScore);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSubmitAfterCloseFails() throws Exception {
+        service = FraudScoringService.forkJoin(2, 8, blacklist);
+        CompletableFuture<FraudCheckResult> admitted = service.submit(1, new Transaction(100, start, "Brazil"));
+
+        service.close();
+
+        assertTrue(admitted.isDone());
+        service.submit(1, new Transaction(100, start, "Brazil"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testTrySubmitAfterCloseFails() {
+        service = FraudScoringService.forkJoin(2, 8, blacklist);
+        service.close();
+
+        service.trySubmit(1, new Transaction(100, start, "Brazil"));
+    }
+
+    @Test
+    public void testOutOfOrderTransactionFailsItsFuture() throws Exception {
+        service = FraudScoringService.forkJoin(2, 8, blacklist);
+
+        service.submit(1, new Transaction(100, start, "Brazil")).get();
+        CompletableFuture<FraudCheckResult> result = service.submit(1, new Transaction(100, start.minusMinutes(5), "Brazil"));
+
+        try {
+            result.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    private void assertMatchesSequentialEngine() throws Exception {
+        List<String> locations = Arrays.asList("Brazil", "France", "HighRiskCountry1");
+        FraudDetectionEngine sequential = new FraudDetectionEngine(blacklist);
+        List<FraudCheckResult> expected = new ArrayList<>();
+        List<CompletableFuture<FraudCheckResult>> actual = new ArrayList<>();
+
+        for (int i = 0; i < 5000; i++) {
+            long accountId = i % 37;
+            Transaction transaction = new Transaction(i % 13 * 1000, start.plusMinutes(i / 10), locations.get(i % 7 % 3));
+            expected.add(sequential.checkForFraud(accountId, transaction));
+            actual.add(service.submit(accountId, transaction));
+        }
+
+        for (int i = 0; i < expected.size(); i++) {
+            FraudCheckResult result = actual.get(i).get();
+            assertEquals(expected.get(i).isFraudulent, result.isFraudulent);
+            assertEquals(expected.get(i).isBlocked, result.isBlocked);
+            assertEquals(expected.get(i).verificationRequired, result.verificationRequired);
+            assertEquals(expected.get(i).riskScore, result.riskScore);
+        }
+    }
+}
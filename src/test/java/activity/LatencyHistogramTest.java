@@ -0,0 +1,60 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    @Before
+    public void initialize() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void testEmptyHistogram() {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(0, snapshot.count());
+        assertEquals(0, snapshot.percentile(99), 0);
+        assertEquals(0, snapshot.mean(), 0);
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(20, snapshot.count());
+        assertEquals(10, snapshot.percentile(50));
+        assertEquals(20, snapshot.percentile(100));
+        assertEquals(10.5, snapshot.mean(), 0.001);
+    }
+
+    @Test
+    public void testLargeValuesKeepRelativePrecision() {
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(990_000, snapshot.percentile(99), 990_000 * 0.035);
+        assertEquals(500_000, snapshot.percentile(50), 500_000 * 0.035);
+        assertEquals(1_000_000, snapshot.max());
+    }
+
+    @Test
+    public void testBucketBoundaries() {
+        for (long value : new long[]{0, 31, 32, 33, 63, 64, 1000, Long.MAX_VALUE}) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(LatencyHistogram.lowestValueAt(index) <= value);
+            assertTrue(LatencyHistogram.highestValueAt(index) >= value);
+        }
+        assertEquals(LatencyHistogram.BUCKET_COUNT - 1, LatencyHistogram.indexOf(Long.MAX_VALUE));
+    }
+}
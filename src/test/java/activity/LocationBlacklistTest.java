@@ -0,0 +1,67 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import activity.FraudDetectionSystem.Transaction;
+import activity.FraudDetectionSystem.FraudCheckResult;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class LocationBlacklistTest {
+
+    private LocationBlacklist blacklist;
+
+    @Before
+    public void initialize() {
+        blacklist = new LocationBlacklist(Arrays.asList("HighRiskCountry1", "HighRiskCountry2"));
+    }
+
+    @Test
+    public void testBlacklistedLocation() {
+        assertTrue(blacklist.contains("HighRiskCountry1"));
+        assertTrue(blacklist.contains("HighRiskCountry2"));
+    }
+
+    @Test
+    public void testUnknownLocation() {
+        assertFalse(blacklist.contains("Brazil"));
+        assertEquals(-1, blacklist.dictionary().lookup("Brazil"));
+    }
+
+    @Test
+    public void testReplaceSwapsWholeList() {
+        blacklist.replace(Collections.singletonList("Brazil"));
+
+        assertTrue(blacklist.contains("Brazil"));
+        assertFalse(blacklist.contains("HighRiskCountry1"));
+    }
+
+    @Test
+    public void testLookupById() {
+        StringDictionary dictionary = blacklist.dictionary();
+        int franceId = dictionary.idOf("France");
+
+        assertTrue(blacklist.containsId(dictionary.lookup("HighRiskCountry2")));
+        assertFalse(blacklist.containsId(franceId));
+        assertFalse(blacklist.containsId(-1));
+        assertEquals("France", dictionary.nameOf(franceId));
+    }
+
+    @Test
+    public void testCheckForFraudWithBlacklistIndex() {
+        FraudDetectionSystem fraudDetectionSystem = new FraudDetectionSystem();
+        Transaction currentTransaction = new Transaction(500, LocalDateTime.now(), "HighRiskCountry2");
+
+        FraudCheckResult result = fraudDetectionSystem.checkForFraud(currentTransaction, new ArrayList<>(), blacklist);
+
+        assertTrue(result.isBlocked);
+        assertFalse(result.isFraudulent);
+        assertEquals(100, result.riskScore);
+    }
+}
@@ -0,0 +1,119 @@
+package activity;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MicroBatcherTest {
+
+    @Test(timeout = 5000)
+    public void testBatchesAreCappedAtMaxSize() throws InterruptedException {
+        List<Integer> sizes = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch release = new CountDownLatch(1);
+        MicroBatcher<Integer> batcher = new MicroBatcher<>("test", 4, Duration.ofMillis(100), 64, batch -> {
+            sizes.add(batch.size());
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        for (int i = 0; i < 10; i++) {
+            batcher.submit(i);
+        }
+        release.countDown();
+        batcher.close();
+
+        int total = 0;
+        for (int size : sizes) {
+            assertTrue(size <= 4);
+            total += size;
+        }
+        assertEquals(10, total);
+    }
+
+    @Test(timeout = 5000)
+    public void testPartialBatchIsHandledAfterMaxDelay() throws InterruptedException {
+        CountDownLatch handled = new CountDownLatch(1);
+        List<Integer> items = Collections.synchronizedList(new ArrayList<>());
+        MicroBatcher<Integer> batcher = new MicroBatcher<>("test", 100, Duration.ofMillis(20), 100, batch -> {
+            items.addAll(batch);
+            handled.countDown();
+        });
+
+        batcher.submit(1);
+        batcher.submit(2);
+
+        assertTrue(handled.await(2, TimeUnit.SECONDS));
+        assertEquals(List.of(1, 2), items);
+        batcher.close();
+    }
+
+    @Test(timeout = 5000)
+    public void testFailingBatchDoesNotStopWorker() throws InterruptedException {
+        List<Integer> items = Collections.synchronizedList(new ArrayList<>());
+        MicroBatcher<Integer> batcher = new MicroBatcher<>("test", 1, Duration.ZERO, 10, batch -> {
+            if (batch.get(0) == 1) {
+                throw new IllegalStateException("boom");
+            }
+            items.addAll(batch);
+        });
+
+        batcher.submit(1);
+        batcher.submit(2);
+        batcher.close();
+
+        assertEquals(List.of(2), items);
+    }
+
+    @Test(timeout = 10000)
+    public void testItemsOfferedDuringCloseAreHandled() throws InterruptedException {
+        for (int round = 0; round < 20; round++) {
+            AtomicInteger handled = new AtomicInteger();
+            AtomicInteger accepted = new AtomicInteger();
+            MicroBatcher<Integer> batcher = new MicroBatcher<>("test", 8, Duration.ZERO, 1024, batch -> handled.addAndGet(batch.size()));
+            List<Thread> producers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                Thread producer = new Thread(() -> {
+                    try {
+                        while (true) {
+                            if (batcher.offer(1)) {
+                                accepted.incrementAndGet();
+                            }
+                        }
+                    } catch (IllegalStateException e) {
+                        // closed
+                    }
+                });
+                producers.add(producer);
+                producer.start();
+            }
+
+            Thread.sleep(2);
+            batcher.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            assertEquals(accepted.get(), handled.get());
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testSubmitAfterClose() throws InterruptedException {
+        MicroBatcher<Integer> batcher = new MicroBatcher<>("test", 1, Duration.ZERO, 10, batch -> {
+        });
+        batcher.close();
+
+        batcher.submit(1);
+    }
+}
@@ -0,0 +1,192 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import activity.FlightBookingSystem.BookingResult;
+import activity.FlightQuoteEngine.Quote;
+
+import static org.junit.Assert.*;
+
+public class QuoteCacheTest {
+
+    private QuoteCache cache;
+    private FlightBookingSystem flightBookingSystem;
+    private LocalDateTime departureTime;
+    private Quote quote;
+
+    @Before
+    public void initialize() {
+        cache = new QuoteCache(4);
+        flightBookingSystem = new FlightBookingSystem();
+        departureTime = LocalDateTime.of(2024, 10, 10, 12, 0);
+        quote = new Quote();
+    }
+
+    private Quote quote(long flightId, LocalDateTime bookingTime, int previousSales) {
+        return cache.quote(flightId, 2, bookingTime, 10, 1000.0, previousSales, false, departureTime, 0, quote);
+    }
+
+    @Test
+    public void testRepeatedQuoteIsAHit() {
+        LocalDateTime bookingTime = departureTime.minusDays(5);
+        quote(1, bookingTime, 120);
+        quote(1, bookingTime.plusHours(1), 120);
+
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(0.5, cache.hitRate(), 0.0);
+        assertTrue(quote.confirmation);
+        assertEquals(1920.0, quote.totalPrice, 1e-9);
+    }
+
+    @Test
+    public void testSalesChangeInvalidates() {
+        LocalDateTime bookingTime = departureTime.minusDays(5);
+        quote(1, bookingTime, 120);
+        quote(1, bookingTime, 121);
+
+        assertEquals(0, cache.hitCount());
+        assertEquals(1, cache.invalidationCount());
+        assertEquals(1, cache.size());
+        assertEquals(1936.0, quote.totalPrice, 1e-9);
+    }
+
+    @Test
+    public void testCrossingHourBoundariesInvalidates() {
+        quote(1, departureTime.minusHours(49), 120);
+        quote(1, departureTime.minusHours(48), 120);
+        quote(1, departureTime.minusHours(47), 120);
+        quote(1, departureTime.minusHours(25), 120);
+        quote(1, departureTime.minusHours(23), 120);
+
+        assertEquals(2, cache.hitCount());
+        assertEquals(2, cache.invalidationCount());
+        assertEquals(2020.0, quote.totalPrice, 1e-9);
+    }
+
+    @Test
+    public void testCancellationsAndMissingSeatsBypassCache() {
+        LocalDateTime bookingTime = departureTime.minusDays(5);
+        cache.quote(1, 2, bookingTime, 10, 1000.0, 120, true, departureTime, 0, quote);
+        assertEquals(1920.0, quote.refundAmount, 1e-9);
+        cache.quote(1, 2, bookingTime, 1, 1000.0, 120, false, departureTime, 0, quote);
+        assertFalse(quote.confirmation);
+
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.hitCount() + cache.missCount());
+    }
+
+    @Test
+    public void testCancellationAtSubMillisecondBoundary() {
+        for (int hours : new int[]{24, 48}) {
+            for (long nanos : new long[]{-500, 0, 500}) {
+                LocalDateTime bookingTime = departureTime.minusHours(hours).plusNanos(nanos);
+                BookingResult expected = flightBookingSystem.bookFlight(2, bookingTime, 10, 1000.0, 120, true, departureTime, 0);
+
+                cache.quote(1, 2, bookingTime, 10, 1000.0, 120, true, departureTime, 0, quote);
+
+                assertEquals(Double.doubleToLongBits(expected.refundAmount), Double.doubleToLongBits(quote.refundAmount));
+            }
+        }
+    }
+
+    @Test
+    public void testLargeCacheIsSegmentedWithinItsSize() throws InterruptedException {
+        QuoteCache largeCache = new QuoteCache(1024);
+        LocalDateTime bookingTime = departureTime.minusDays(5);
+        AtomicInteger wrongPrices = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int first = t * 1000;
+            Thread thread = new Thread(() -> {
+                Quote threadQuote = new Quote();
+                for (int round = 0; round < 3; round++) {
+                    for (long flight = first; flight < first + 1000; flight++) {
+                        largeCache.quote(flight, 2, bookingTime, 10, 1000.0, 120, false, departureTime, 0, threadQuote);
+                        if (Math.abs(threadQuote.totalPrice - 1920.0) > 1e-9) {
+                            wrongPrices.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, wrongPrices.get());
+        assertEquals(QuoteCache.MAX_SEGMENTS, largeCache.segmentCount());
+        assertTrue(largeCache.size() <= 1024);
+        assertEquals(12000, largeCache.hitCount() + largeCache.missCount());
+    }
+
+    @Test
+    public void testPopularEntriesSurviveOneOffKeys() {
+        LocalDateTime bookingTime = departureTime.minusDays(5);
+        for (int round = 0; round < 5; round++) {
+            for (long flight = 0; flight < 4; flight++) {
+                quote(flight, bookingTime, 120);
+            }
+        }
+        for (long flight = 100; flight < 110; flight++) {
+            quote(flight, bookingTime, 120);
+        }
+        long hits = cache.hitCount();
+        for (long flight = 0; flight < 4; flight++) {
+            quote(flight, bookingTime, 120);
+        }
+
+        assertEquals(4, cache.size());
+        assertEquals(10, cache.rejectionCount());
+        assertEquals(hits + 4, cache.hitCount());
+    }
+
+    @Test
+    public void testFrequentNewKeyIsAdmitted() {
+        LocalDateTime bookingTime = departureTime.minusDays(5);
+        for (long flight = 0; flight < 4; flight++) {
+            quote(flight, bookingTime, 120);
+        }
+        quote(9, bookingTime, 120);
+        quote(9, bookingTime, 120);
+
+        assertEquals(1, cache.rejectionCount());
+        assertEquals(1, cache.evictionCount());
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    public void testMatchesBookFlight() {
+        Random random = new Random(42);
+        QuoteCache largeCache = new QuoteCache(64);
+        for (int i = 0; i < 20000; i++) {
+            int passengers = 1 + random.nextInt(8);
+            int availableSeats = random.nextInt(10);
+            double currentPrice = 100 * (1 + random.nextInt(3));
+            int previousSales = 100 + random.nextInt(3);
+            boolean isCancellation = random.nextInt(5) == 0;
+            int rewardPoints = random.nextBoolean() ? 0 : 500;
+            LocalDateTime bookingTime = departureTime.minusMinutes(random.nextInt(4 * 24 * 60));
+
+            BookingResult expected = flightBookingSystem.bookFlight(passengers, bookingTime, availableSeats, currentPrice,
+                    previousSales, isCancellation, departureTime, rewardPoints);
+            largeCache.quote(random.nextInt(4), passengers, bookingTime, availableSeats, currentPrice, previousSales,
+                    isCancellation, departureTime, rewardPoints, quote);
+
+            assertEquals(expected.confirmation, quote.confirmation);
+            assertEquals(expected.pointsUsed, quote.pointsUsed);
+            assertEquals(Double.doubleToLongBits(expected.totalPrice), Double.doubleToLongBits(quote.totalPrice));
+            assertEquals(Double.doubleToLongBits(expected.refundAmount), Double.doubleToLongBits(quote.refundAmount));
+        }
+        assertTrue(largeCache.hitCount() > 0);
+    }
+}
@@ -0,0 +1,91 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import activity.ActivityMetrics.BookingDecision;
+import activity.ActivityMetrics.Operation;
+import activity.ActivityMetrics.Rule;
+import activity.FraudDetectionSystem.Transaction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class RecordingMetricsTest {
+
+    private RecordingMetrics metrics;
+
+    @Before
+    public void initialize() {
+        metrics = new RecordingMetrics();
+    }
+
+    @Test
+    public void testFraudRuleHits() {
+        FraudDetectionSystem fraudDetectionSystem = new FraudDetectionSystem(metrics);
+        List<String> blacklistedLocations = Arrays.asList("HighRiskCountry1");
+        List<Transaction> previousTransactions = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.of(2024, 10, 1, 12, 0);
+        previousTransactions.add(new Transaction(100, now.minusMinutes(10), "France"));
+
+        fraudDetectionSystem.checkForFraud(new Transaction(12000, now, "HighRiskCountry1"), previousTransactions, blacklistedLocations);
+        fraudDetectionSystem.checkForFraud(new Transaction(100, now, "France"), previousTransactions, blacklistedLocations);
+        RecordingMetrics.MetricsSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(1, snapshot.ruleHits(Rule.AMOUNT));
+        assertEquals(0, snapshot.ruleHits(Rule.VELOCITY));
+        assertEquals(1, snapshot.ruleHits(Rule.LOCATION_CHANGE));
+        assertEquals(1, snapshot.ruleHits(Rule.BLACKLIST));
+        assertEquals(2, snapshot.latency(Operation.CHECK_FOR_FRAUD).count());
+    }
+
+    @Test
+    public void testBookingDecisions() {
+        FlightBookingSystem flightBookingSystem = new FlightBookingSystem(metrics);
+        LocalDateTime bookingTime = LocalDateTime.of(2024, 10, 1, 12, 0);
+        LocalDateTime departureTime = bookingTime.plusDays(3);
+
+        flightBookingSystem.bookFlight(2, bookingTime, 10, 500.0, 100, false, departureTime, 0);
+        flightBookingSystem.bookFlight(2, bookingTime, 10, 500.0, 100, true, departureTime, 0);
+        flightBookingSystem.bookFlight(20, bookingTime, 10, 500.0, 100, false, departureTime, 0);
+        RecordingMetrics.MetricsSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(1, snapshot.bookingDecisions(BookingDecision.CONFIRMED));
+        assertEquals(1, snapshot.bookingDecisions(BookingDecision.CANCELLED));
+        assertEquals(1, snapshot.bookingDecisions(BookingDecision.REJECTED_NO_SEATS));
+        assertEquals(3, snapshot.latency(Operation.BOOK_FLIGHT).count());
+    }
+
+    @Test
+    public void testEnergyShutdownIterations() {
+        SmartEnergyManagementSystem energySystem = new SmartEnergyManagementSystem(metrics);
+        Map<String, Integer> devicePriorities = new HashMap<>();
+        devicePriorities.put("Heating", 1);
+        devicePriorities.put("Cooling", 1);
+        devicePriorities.put("Lights", 2);
+        devicePriorities.put("Security", 1);
+
+        energySystem.manageEnergy(0.10, 0.20, devicePriorities, LocalDateTime.of(2024, 10, 1, 12, 0), 22.0,
+                new double[]{20.0, 24.0}, 30.0, 40.0, new ArrayList<>());
+        RecordingMetrics.MetricsSnapshot snapshot = metrics.snapshot();
+
+        assertEquals(2, snapshot.energyShutdownIterations());
+        assertEquals(1, snapshot.latency(Operation.MANAGE_ENERGY).count());
+    }
+
+    @Test
+    public void testNoopRecordsNothing() {
+        ActivityMetrics noop = ActivityMetrics.NOOP;
+
+        assertEquals(0, noop.startTimer());
+        noop.fraudRuleHits(-1);
+        noop.recordLatency(Operation.BOOK_FLIGHT, 0);
+        assertEquals(0, metrics.snapshot().latency(Operation.BOOK_FLIGHT).count());
+    }
+}
@@ -0,0 +1,153 @@
+package activity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import activity.FlightBookingSystem.BookingResult;
+import activity.RefundEngine.BookingSource;
+import activity.RefundEngine.CsvRefundWriter;
+import activity.RefundEngine.RefundSummary;
+
+import static org.junit.Assert.*;
+
+public class RefundEngineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ForkJoinPool pool;
+    private RefundEngine engine;
+    private FlightBookingSystem flightBookingSystem;
+    private LocalDateTime departureTime;
+
+    @Before
+    public void initialize() {
+        pool = new ForkJoinPool(4);
+        engine = new RefundEngine(pool, 100);
+        flightBookingSystem = new FlightBookingSystem();
+        departureTime = LocalDateTime.of(2024, 10, 10, 12, 0);
+    }
+
+    @After
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // Generates bookings on demand, so no test holds them all
+    private BookingSource generated(int count, long seed) {
+        Random random = new Random(seed);
+        return new BookingSource() {
+            long next;
+
+            @Override
+            public void read(RefundEngine.Bookings chunk, int maxBookings) {
+                while (chunk.size() < maxBookings && next < count) {
+                    chunk.add(next++, 1 + random.nextInt(8), 50 + random.nextInt(200000) / 100.0, random.nextInt(300),
+                            random.nextBoolean() ? 0 : random.nextInt(5000));
+                }
+            }
+        };
+    }
+
+    // Hands out the bookings in one chunk, then reports the end
+    private BookingSource single(RefundEngine.Bookings bookings) {
+        return new BookingSource() {
+            boolean read;
+
+            @Override
+            public void read(RefundEngine.Bookings chunk, int maxBookings) {
+                for (int i = 0; !read && i < bookings.size(); i++) {
+                    chunk.add(bookings.bookingIds[i], bookings.passengers[i], bookings.currentPrices[i],
+                            bookings.previousSales[i], bookings.rewardPoints[i]);
+                }
+                read = true;
+            }
+        };
+    }
+
+    private void assertMatchesBookFlight(LocalDateTime cancellationTime) throws IOException {
+        List<Double> refunds = new ArrayList<>();
+        RefundSummary summary = engine.refundAll(generated(1050, 7), cancellationTime, departureTime,
+                (bookingId, refundAmount) -> {
+                    assertEquals(refunds.size(), bookingId);
+                    refunds.add(refundAmount);
+                });
+
+        Random random = new Random(7);
+        double total = 0;
+        for (int i = 0; i < 1050; i++) {
+            int passengers = 1 + random.nextInt(8);
+            double currentPrice = 50 + random.nextInt(200000) / 100.0;
+            int previousSales = random.nextInt(300);
+            int rewardPoints = random.nextBoolean() ? 0 : random.nextInt(5000);
+            BookingResult expected = flightBookingSystem.bookFlight(passengers, cancellationTime, passengers, currentPrice,
+                    previousSales, true, departureTime, rewardPoints);
+
+            assertEquals(Double.doubleToLongBits(expected.refundAmount), Double.doubleToLongBits(refunds.get(i)));
+            total += expected.refundAmount;
+        }
+        assertEquals(1050, summary.bookings());
+        assertEquals(total, summary.totalRefunded(), 1e-6);
+    }
+
+    @Test
+    public void testFullRefundsMatchBookFlight() throws IOException {
+        assertMatchesBookFlight(departureTime.minusHours(48));
+    }
+
+    @Test
+    public void testHalfRefundsMatchBookFlight() throws IOException {
+        assertMatchesBookFlight(departureTime.minusHours(30));
+    }
+
+    @Test
+    public void testLastMinuteRefundsMatchBookFlight() throws IOException {
+        assertMatchesBookFlight(departureTime.minusMinutes(90));
+    }
+
+    @Test
+    public void testEmptySource() throws IOException {
+        RefundSummary summary = engine.refundAll((chunk, maxBookings) -> {
+        }, departureTime.minusDays(3), departureTime, (bookingId, refundAmount) -> fail());
+
+        assertEquals(0, summary.bookings());
+        assertTrue(summary.fullRefund());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testOverfilledChunkIsRejected() throws IOException {
+        engine.refundAll((chunk, maxBookings) -> {
+            for (int i = 0; i <= maxBookings; i++) {
+                chunk.add(i, 1, 100.0, 100, 0);
+            }
+        }, departureTime.minusDays(3), departureTime, (bookingId, refundAmount) -> {
+        });
+    }
+
+    @Test
+    public void testCsvWriter() throws IOException {
+        Path file = folder.getRoot().toPath().resolve("refunds.csv");
+        try (CsvRefundWriter writer = new CsvRefundWriter(file)) {
+            RefundEngine.Bookings bookings = new RefundEngine.Bookings(1);
+            bookings.add(42, 2, 1000.0, 100, 0);
+            engine.refundAll(single(bookings), departureTime.minusDays(3), departureTime, writer);
+        }
+
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals("bookingId,refundAmount", lines.get(0));
+        assertEquals("42,1600.0", lines.get(1));
+    }
+}
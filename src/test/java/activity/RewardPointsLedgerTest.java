@@ -0,0 +1,141 @@
+package activity;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import activity.FlightBookingSystem.BookingResult;
+import activity.RewardPointsLedger.Reservation;
+
+import static org.junit.Assert.*;
+
+public class RewardPointsLedgerTest {
+
+    private RewardPointsLedger ledger;
+    private FlightBookingSystem flightBookingSystem;
+    private LocalDateTime bookingTime;
+    private LocalDateTime departureTime;
+
+    @Before
+    public void initialize() {
+        ledger = new RewardPointsLedger();
+        flightBookingSystem = new FlightBookingSystem();
+        bookingTime = LocalDateTime.of(2024, 10, 1, 12, 0);
+        departureTime = bookingTime.plusDays(10);
+    }
+
+    @Test
+    public void testReserveCommitAndRelease() {
+        ledger.credit(1, 1000);
+
+        Reservation committed = ledger.reserve(1, 600);
+        assertNotNull(committed);
+        assertNull(ledger.reserve(1, 600));
+        assertEquals(400, ledger.availablePoints(1));
+        assertEquals(600, ledger.reservedPoints(1));
+
+        assertTrue(ledger.commit(committed));
+        assertFalse(ledger.commit(committed));
+        assertFalse(ledger.release(committed));
+        assertEquals(400, ledger.availablePoints(1));
+        assertEquals(0, ledger.reservedPoints(1));
+
+        Reservation released = ledger.reserve(1, 400);
+        assertTrue(ledger.release(released));
+        assertFalse(ledger.release(released));
+        assertEquals(400, ledger.availablePoints(1));
+    }
+
+    @Test
+    public void testUnknownCustomerHasNoPoints() {
+        assertNull(ledger.reserve(7, 1));
+        assertNull(ledger.reserve(7, 0));
+        assertEquals(0, ledger.availablePoints(7));
+        // Probing unknown customers leaves no accounts behind
+        assertTrue(ledger.accounts.isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeReservation() {
+        ledger.reserve(1, -5);
+    }
+
+    @Test
+    public void testConfirmedBookingSpendsPoints() {
+        ledger.credit(1, 500);
+
+        BookingResult result = ledger.bookFlight(flightBookingSystem, 1, 2, bookingTime, 10, 1000.0, 100, false, departureTime, 500);
+
+        assertTrue(result.confirmation);
+        assertTrue(result.pointsUsed);
+        assertEquals(1595.0, result.totalPrice, 0.005);
+        assertEquals(0, ledger.availablePoints(1));
+    }
+
+    @Test
+    public void testBookingWithoutEnoughPointsIsPricedWithoutThem() {
+        ledger.credit(1, 100);
+
+        BookingResult result = ledger.bookFlight(flightBookingSystem, 1, 2, bookingTime, 10, 1000.0, 100, false, departureTime, 500);
+
+        assertTrue(result.confirmation);
+        assertFalse(result.pointsUsed);
+        assertEquals(1600.0, result.totalPrice, 0.005);
+        assertEquals(100, ledger.availablePoints(1));
+    }
+
+    @Test
+    public void testRejectedBookingReleasesPoints() {
+        ledger.credit(1, 500);
+
+        BookingResult result = ledger.bookFlight(flightBookingSystem, 1, 12, bookingTime, 10, 1000.0, 100, false, departureTime, 500);
+
+        assertFalse(result.confirmation);
+        assertEquals(500, ledger.availablePoints(1));
+        assertEquals(0, ledger.reservedPoints(1));
+    }
+
+    @Test(timeout = 10000)
+    public void testPointsAreNeverRedeemedTwice() throws InterruptedException {
+        ledger.credit(1, 100_000);
+        AtomicLong redeemed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 5_000; i++) {
+                    Reservation reservation = ledger.reserve(1, 7);
+                    if (reservation == null) {
+                        continue;
+                    }
+                    if (i % 3 == 0) {
+                        ledger.release(reservation);
+                    } else if (ledger.commit(reservation)) {
+                        redeemed.addAndGet(7);
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(100_000, redeemed.get() + ledger.availablePoints(1));
+        assertEquals(0, ledger.reservedPoints(1));
+        assertTrue(ledger.availablePoints(1) >= 0);
+    }
+}
@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 
 import activity.SmartEnergyManagementSystem.DeviceSchedule;
 import activity.SmartEnergyManagementSystem.EnergyManagementResult;
@@ -175,4 +176,140 @@ private SmartEnergyManagementSystem energySystem;
         assertFalse(result.temperatureRegulationActive);
         assertEquals(totalEnergyUsedToday, result.totalEnergyUsed, 0.005);
     }
+
+    @Test(timeout=1000)
+    public void testLargeDeviceMapWithExceedingUsage() {
+        for (int i = 0; i < 100000; i++) {
+            devicePriorities.put("Device" + i, 1 + i % 3);
+        }
+        LocalDateTime currentTime = LocalDateTime.of(2024, 10, 1, 12, 0);
+        double[] desiredTemperatureRange = {20.0, 24.0};
+        double energyUsageLimit = 30.0;
+        double totalEnergyUsedToday = 70000.0;
+
+        EnergyManagementResult result = energySystem.manageEnergy(0.10, 0.20, devicePriorities,
+                                                                  currentTime, 22.0, desiredTemperatureRange,
+                                                                  energyUsageLimit, totalEnergyUsedToday, scheduledDevices);
+
+        // 66668 low-priority devices go first, then the 33336 high-priority devices that are on
+        assertFalse(result.deviceStatus.containsValue(true));
+        assertEquals(totalEnergyUsedToday - 66668 - 33336, result.totalEnergyUsed, 0.005);
+    }
+
+    @Test(timeout=1000)
+    public void testExceedingUsageWithHeatingWithoutPriority() {
+        devicePriorities.remove("Heating");
+        LocalDateTime currentTime = LocalDateTime.of(2024, 10, 1, 12, 0);
+        double[] desiredTemperatureRange = {20.0, 24.0};
+        double totalEnergyUsedToday = 100.0;
+
+        EnergyManagementResult result = energySystem.manageEnergy(0.10, 0.20, devicePriorities,
+                                                                  currentTime, 15.0, desiredTemperatureRange,
+                                                                  30.0, totalEnergyUsedToday, scheduledDevices);
+
+        // Heating has no priority, so it is never shut down
+        assertTrue(result.deviceStatus.get("Heating"));
+        assertFalse(result.deviceStatus.get("Lights"));
+        assertFalse(result.deviceStatus.get("Security"));
+        assertEquals(totalEnergyUsedToday - 5, result.totalEnergyUsed, 0.005);
+    }
+
+    @Test
+    public void testAllOverloadsMatchMapReferenceOnRandomInputs() {
+        Random random = new Random(11);
+        double[] desiredTemperatureRange = {20.0, 24.0};
+        LocalDateTime start = LocalDateTime.of(2024, 10, 1, 0, 0);
+        String[] names = {"Heating", "Cooling", "Security", "Refrigerator", "Lights", "Appliances", "TV", "Oven"};
+        for (int i = 0; i < 2000; i++) {
+            Map<String, Integer> priorities = new HashMap<>();
+            for (String device : names) {
+                if (random.nextInt(4) > 0) {
+                    priorities.put(device, random.nextInt(4));
+                }
+            }
+            for (int extra = random.nextInt(80); extra > 0; extra--) {
+                priorities.put("Device" + random.nextInt(200), random.nextInt(4));
+            }
+            double price = random.nextDouble();
+            double temperature = 15 + random.nextInt(15);
+            double used = random.nextInt(2) == 0 ? random.nextInt(30) : 30 + random.nextInt(100) + random.nextDouble();
+            LocalDateTime currentTime = start.plusMinutes(37L * i);
+            List<DeviceSchedule> schedules = new ArrayList<>();
+            DeviceScheduler scheduler = new DeviceScheduler(currentTime.minusMinutes(1));
+            for (int s = random.nextInt(3); s > 0; s--) {
+                DeviceSchedule schedule = new DeviceSchedule(names[random.nextInt(names.length)],
+                        random.nextBoolean() ? currentTime : currentTime.plusMinutes(5));
+                schedules.add(schedule);
+                scheduler.schedule(schedule);
+            }
+
+            EnergyManagementResult expected = referenceManageEnergy(price, 0.5, priorities, currentTime, temperature,
+                    desiredTemperatureRange, 30.0, used, schedules);
+            EnergyManagementResult fromMap = energySystem.manageEnergy(price, 0.5, priorities, currentTime, temperature,
+                    desiredTemperatureRange, 30.0, used, schedules);
+            EnergyManagementResult fromRegistry = energySystem.manageEnergy(price, 0.5, DeviceRegistry.of(priorities),
+                    currentTime, temperature, desiredTemperatureRange, 30.0, used, scheduler);
+
+            for (EnergyManagementResult actual : new EnergyManagementResult[]{fromMap, fromRegistry}) {
+                assertEquals(expected.deviceStatus, new HashMap<>(actual.deviceStatus));
+                assertEquals(expected.energySavingMode, actual.energySavingMode);
+                assertEquals(expected.temperatureRegulationActive, actual.temperatureRegulationActive);
+                assertEquals(expected.totalEnergyUsed, actual.totalEnergyUsed, 0.0);
+            }
+        }
+    }
+
+    // The rules on HashMaps, device by device, as manageEnergy ran them before devices had ids
+    private static EnergyManagementResult referenceManageEnergy(double currentPrice, double priceThreshold,
+                                                                Map<String, Integer> devicePriorities, LocalDateTime currentTime,
+                                                                double currentTemperature, double[] desiredTemperatureRange,
+                                                                double energyUsageLimit, double totalEnergyUsedToday,
+                                                                List<DeviceSchedule> scheduledDevices) {
+        Map<String, Boolean> deviceStatus = new HashMap<>();
+        boolean energySavingMode = currentPrice > priceThreshold;
+        boolean temperatureRegulationActive = false;
+        for (Map.Entry<String, Integer> entry : devicePriorities.entrySet()) {
+            deviceStatus.put(entry.getKey(), !(energySavingMode && entry.getValue() > 1));
+        }
+        if (currentTime.getHour() >= 23 || currentTime.getHour() < 6) {
+            for (String device : devicePriorities.keySet()) {
+                if (!device.equals("Security") && !device.equals("Refrigerator")) {
+                    deviceStatus.put(device, false);
+                }
+            }
+        }
+        if (currentTemperature < desiredTemperatureRange[0]) {
+            deviceStatus.put("Heating", true);
+            temperatureRegulationActive = true;
+        } else if (currentTemperature > desiredTemperatureRange[1]) {
+            deviceStatus.put("Cooling", true);
+            temperatureRegulationActive = true;
+        } else {
+            deviceStatus.put("Heating", false);
+            deviceStatus.put("Cooling", false);
+        }
+        // Devices without a priority are never shut down
+        while (totalEnergyUsedToday >= energyUsageLimit && devicePriorities.keySet().stream().anyMatch(deviceStatus::get)) {
+            for (Map.Entry<String, Integer> entry : devicePriorities.entrySet()) {
+                if (deviceStatus.get(entry.getKey()) && entry.getValue() > 1) {
+                    deviceStatus.put(entry.getKey(), false);
+                    totalEnergyUsedToday -= 1;
+                }
+            }
+            while (totalEnergyUsedToday >= energyUsageLimit && devicePriorities.keySet().stream().anyMatch(deviceStatus::get)) {
+                for (String device : devicePriorities.keySet()) {
+                    if (deviceStatus.get(device)) {
+                        deviceStatus.put(device, false);
+                        totalEnergyUsedToday -= 1;
+                    }
+                }
+            }
+        }
+        for (DeviceSchedule schedule : scheduledDevices) {
+            if (schedule.scheduledTime.equals(currentTime)) {
+                deviceStatus.put(schedule.deviceName, true);
+            }
+        }
+        return new EnergyManagementResult(deviceStatus, energySavingMode, temperatureRegulationActive, totalEnergyUsedToday);
+    }
 }
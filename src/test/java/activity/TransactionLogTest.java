@@ -0,0 +1,159 @@
+package activity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import activity.FraudDetectionSystem.Transaction;
+import activity.FraudDetectionSystem.FraudCheckResult;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class TransactionLogTest {
+
+    private Path directory;
+    private Path file;
+    private TransactionLog log;
+    private LocationBlacklist blacklist;
+    private LocalDateTime start;
+
+    @Before
+    public void initialize() throws IOException {
+        directory = Files.createTempDirectory("transaction-log");
+        file = directory.resolve("transactions.log");
+        log = TransactionLog.open(file);
+        blacklist = new LocationBlacklist(Arrays.asList("HighRiskCountry1", "HighRiskCountry2"));
+        start = LocalDateTime.of(2024, 10, 1, 12, 0);
+    }
+
+    @After
+    public void cleanUp() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Test
+    public void testEmptyAccount() {
+        FraudCheckResult result = log.checkForFraud(1, new Transaction(500, start, "Brazil"), blacklist);
+
+        assertFalse(result.isFraudulent);
+        assertFalse(result.isBlocked);
+        assertEquals(0, result.riskScore);
+    }
+
+    @Test
+    public void testRecentTransactionCountStopsAtWindow() throws IOException {
+        for (int i = 0; i < 20; i++) {
+            log.append(1, new Transaction(100, start.plusMinutes(10 * i), "Brazil"));
+        }
+
+        assertEquals(7, log.recentTransactionCount(1, EpochTime.toEpochMillis(start.plusMinutes(190))));
+        assertEquals(0, log.recentTransactionCount(2, EpochTime.toEpochMillis(start)));
+    }
+
+    @Test
+    public void testSubMillisecondTimestampsSurviveRestart() throws IOException {
+        LocalDateTime previousTime = start.plusNanos(500_000);
+        log.append(1, new Transaction(100, previousTime, "France"));
+        log.close();
+        log = TransactionLog.open(file);
+
+        Transaction current = new Transaction(1000, previousTime.plusMinutes(30).minusNanos(1), "Brazil");
+        FraudCheckResult result = log.checkForFraud(1, current, blacklist);
+        FraudCheckResult expected = new FraudDetectionSystem().checkForFraud(current,
+                List.of(new Transaction(100, previousTime, "France")), new ArrayList<>());
+
+        assertEquals(20, expected.riskScore);
+        assertEquals(expected.riskScore, result.riskScore);
+        assertTrue(result.verificationRequired);
+    }
+
+    @Test
+    public void testLocationsWithLineBreaksSurviveRestart() throws IOException {
+        log.append(1, new Transaction(100, start, "Line\nBreak"));
+        log.append(2, new Transaction(100, start, "Carriage\rReturn"));
+        log.append(3, new Transaction(100, start, "Brazil"));
+        log.close();
+        log = TransactionLog.open(file);
+
+        assertEquals(3, log.locations().size());
+        assertEquals("Brazil", log.locations().nameOf(2));
+        assertEquals(0, log.checkForFraud(3, new Transaction(100, start.plusMinutes(1), "Brazil"), blacklist).riskScore);
+        assertEquals(20, log.checkForFraud(1, new Transaction(100, start.plusMinutes(1), "Line"), blacklist).riskScore);
+    }
+
+    @Test
+    public void testOpenStopsAtFirstRecordThatWasNeverWritten() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            log.append(1, new Transaction(100, start.plusMinutes(i), "Brazil"));
+        }
+        log.close();
+        // As if the OS had written the header back but not the fourth record
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(TransactionLog.RECORD_BYTES), TransactionLog.HEADER_BYTES + 3L * TransactionLog.RECORD_BYTES);
+        }
+        log = TransactionLog.open(file);
+
+        assertEquals(3, log.size());
+        assertEquals(3, log.recentTransactionCount(1, EpochTime.toEpochMillis(start.plusMinutes(5))));
+        log.append(1, new Transaction(100, start.plusMinutes(3), "Brazil"));
+        assertEquals(4, log.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfOrderAppendIsRejected() throws IOException {
+        log.append(1, new Transaction(100, start, "Brazil"));
+        log.append(1, new Transaction(100, start.minusSeconds(1), "Brazil"));
+    }
+
+    @Test
+    public void testMatchesCheckForFraudAcrossRestart() throws IOException {
+        FraudDetectionSystem fraudDetectionSystem = new FraudDetectionSystem();
+        Map<Long, List<Transaction>> histories = new HashMap<>();
+        List<String> locations = Arrays.asList("Brazil", "France", "HighRiskCountry1");
+        Random random = new Random(5);
+        LocalDateTime time = start;
+
+        for (int i = 0; i < 3000; i++) {
+            time = time.plusSeconds(random.nextInt(120));
+            long accountId = random.nextInt(20);
+            Transaction transaction = new Transaction(random.nextInt(12000), time, locations.get(random.nextInt(locations.size())));
+            List<Transaction> history = histories.computeIfAbsent(accountId, id -> new ArrayList<>());
+
+            assertSameResult(fraudDetectionSystem.checkForFraud(transaction, history, blacklist), log.checkForFraud(accountId, transaction, blacklist));
+            log.append(accountId, transaction);
+            history.add(transaction);
+
+            if (i == 1500) {
+                log.close();
+                log = TransactionLog.open(file);
+            }
+        }
+        assertEquals(3000, log.size());
+    }
+
+    private void assertSameResult(FraudCheckResult expected, FraudCheckResult actual) {
+        assertEquals(expected.isFraudulent, actual.isFraudulent);
+        assertEquals(expected.isBlocked, actual.isBlocked);
+        assertEquals(expected.verificationRequired, actual.verificationRequired);
+        assertEquals(expected.riskScore, actual.riskScore);
+    }
+}
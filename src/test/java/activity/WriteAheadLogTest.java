@@ -0,0 +1,155 @@
+package activity;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WriteAheadLogTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Long> replayed = new ArrayList<>();
+
+    private Path file() {
+        return folder.getRoot().toPath().resolve("test.wal");
+    }
+
+    private WriteAheadLog open(Path file) throws IOException {
+        replayed.clear();
+        return WriteAheadLog.open(file, 3, 8, (type, payload) -> {
+            assertEquals(7, type);
+            replayed.add(payload.getLong());
+        });
+    }
+
+    private static ByteBuffer record(long value) {
+        return ByteBuffer.allocate(Long.BYTES).putLong(value).flip();
+    }
+
+    @Test
+    public void testRecordsSurviveReopen() throws IOException {
+        try (WriteAheadLog log = open(file())) {
+            for (long i = 0; i < 1000; i++) {
+                log.append((byte) 7, record(i));
+            }
+        }
+
+        try (WriteAheadLog log = open(file())) {
+            assertEquals(1000, replayed.size());
+            assertEquals(999L, (long) replayed.get(999));
+            assertEquals(3, log.generation());
+            log.append((byte) 7, record(1000));
+        }
+
+        open(file()).close();
+        assertEquals(1001, replayed.size());
+    }
+
+    @Test
+    public void testTornTailIsTruncated() throws IOException {
+        try (WriteAheadLog log = open(file())) {
+            log.append((byte) 7, record(1));
+            log.append((byte) 7, record(2));
+        }
+        long size;
+        try (FileChannel channel = FileChannel.open(file(), StandardOpenOption.WRITE)) {
+            size = channel.size();
+            channel.truncate(size - 3);
+        }
+
+        try (WriteAheadLog log = open(file())) {
+            assertEquals(List.of(1L), replayed);
+            assertEquals(size - (Long.BYTES + WriteAheadLog.RECORD_OVERHEAD), log.size());
+            log.append((byte) 7, record(3));
+        }
+
+        open(file()).close();
+        assertEquals(List.of(1L, 3L), replayed);
+    }
+
+    @Test
+    public void testCorruptRecordEndsReplay() throws IOException {
+        try (WriteAheadLog log = open(file())) {
+            log.append((byte) 7, record(1));
+            log.append((byte) 7, record(2));
+            log.append((byte) 7, record(3));
+        }
+        try (FileChannel channel = FileChannel.open(file(), StandardOpenOption.WRITE)) {
+            long second = WriteAheadLog.HEADER_BYTES + Long.BYTES + WriteAheadLog.RECORD_OVERHEAD;
+            channel.write(ByteBuffer.wrap(new byte[]{42}), second + Integer.BYTES + 1);
+        }
+
+        open(file()).close();
+
+        assertEquals(List.of(1L), replayed);
+    }
+
+    @Test
+    public void testReadCompleteReplaysWholeFile() throws IOException {
+        try (WriteAheadLog log = open(file())) {
+            log.append((byte) 7, record(1));
+            log.append((byte) 7, record(2));
+        }
+        replayed.clear();
+
+        long generation = WriteAheadLog.readComplete(file(), (type, payload) -> replayed.add(payload.getLong()));
+
+        assertEquals(3, generation);
+        assertEquals(List.of(1L, 2L), replayed);
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadCompleteRejectsCorruptRecord() throws IOException {
+        try (WriteAheadLog log = open(file())) {
+            log.append((byte) 7, record(1));
+            log.append((byte) 7, record(2));
+        }
+        try (FileChannel channel = FileChannel.open(file(), StandardOpenOption.WRITE)) {
+            long second = WriteAheadLog.HEADER_BYTES + Long.BYTES + WriteAheadLog.RECORD_OVERHEAD;
+            channel.write(ByteBuffer.wrap(new byte[]{42}), second + Integer.BYTES + 1);
+        }
+
+        WriteAheadLog.readComplete(file(), (type, payload) -> replayed.add(payload.getLong()));
+    }
+
+    @Test
+    public void testResetStartsNewGeneration() throws IOException {
+        try (WriteAheadLog log = open(file())) {
+            log.append((byte) 7, record(1));
+            log.reset(4);
+            log.append((byte) 7, record(2));
+        }
+
+        try (WriteAheadLog log = open(file())) {
+            assertEquals(4, log.generation());
+            assertEquals(List.of(2L), replayed);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testForeignFileIsRejected() throws IOException {
+        try (FileChannel channel = FileChannel.open(file(), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[64]));
+        }
+
+        open(file());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOversizedRecordIsRejected() throws IOException {
+        try (WriteAheadLog log = open(file())) {
+            log.append((byte) 7, ByteBuffer.allocate(WriteAheadLog.BUFFER_BYTES));
+        }
+    }
+}